@@ -0,0 +1,76 @@
+package xor_ga_classic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins critiques du GA classique, sur le réseau 2-2-1 de XOR (NeuralNet.xor(), 144 bits) :
+ * pas de paramètre de taille ici.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GaBenchmark {
+
+    private NeuralNet net;
+    private Individual parent1;
+    private Individual parent2;
+    private Individual mutant;
+    private String bitString;
+    private double[] params;
+
+    @Setup
+    public void setUp() {
+        net = NeuralNet.xor();
+        parent1 = new Individual(net);
+        parent2 = new Individual(net);
+        mutant = new Individual(net);
+        bitString = parent1.toBitString();
+        params = new double[net.getTotalParams()];
+    }
+
+    @Benchmark
+    public double[] decodeBitString() {
+        return net.decodeBitString(bitString);
+    }
+
+    @Benchmark
+    public double[] decodeInto() {
+        net.decodeInto(parent1.getGenes(), params);
+        return params;
+    }
+
+    @Benchmark
+    public double calculateFitness() {
+        return net.calculateFitness(parent1.getGenes());
+    }
+
+    @Benchmark
+    public double calculateFitnessBitString() {
+        return net.calculateFitness(bitString);
+    }
+
+    @Benchmark
+    public Individual[] crossover() {
+        return Individual.crossover(parent1, parent2);
+    }
+
+    @Benchmark
+    public long[] mutate() {
+        mutant.mutate();
+        return mutant.getGenes();
+    }
+}
@@ -0,0 +1,39 @@
+package xor_neat;
+
+/**
+ * Génomes de taille contrôlée pour les benchmarks NEAT.
+ */
+final class BenchmarkGenomes {
+
+    static final int INPUT_COUNT = 2;
+    static final int OUTPUT_COUNT = 1;
+    static final int INITIAL_NODES = INPUT_COUNT + 1 + OUTPUT_COUNT;
+
+    private static final NeatConfig CONFIG = new NeatConfig();
+
+    private BenchmarkGenomes() {
+    }
+
+    /**
+     * Fait croître un génome XOR minimal jusqu'à 'hiddenNodes' nœuds cachés et au moins
+     * 'connections' connexions (ou jusqu'à saturation du graphe acyclique), puis perturbe les poids.
+     */
+    static NeatGenome grow(InnovationTracker tracker, int hiddenNodes, int connections) {
+        NeatGenome genome = new NeatGenome(INPUT_COUNT, OUTPUT_COUNT, tracker);
+        while (genome.getNodeCount() < INITIAL_NODES + hiddenNodes) {
+            genome.mutateAddNode(tracker);
+        }
+        int stalled = 0;
+        while (genome.getConnectionCount() < connections && stalled < 100) {
+            int before = genome.getConnectionCount();
+            genome.mutateAddConnection(tracker);
+            stalled = (genome.getConnectionCount() == before) ? stalled + 1 : 0;
+        }
+        genome.mutate(CONFIG, tracker);
+        return genome;
+    }
+
+    static NeatConfig config() {
+        return CONFIG;
+    }
+}
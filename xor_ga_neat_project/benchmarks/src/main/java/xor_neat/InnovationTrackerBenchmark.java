@@ -0,0 +1,56 @@
+package xor_neat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche d'innovations existantes (cas courant pendant la reproduction).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InnovationTrackerBenchmark {
+
+    // Nombre de connexions (in, out) déjà enregistrées
+    @Param({"64", "4096"})
+    public int knownInnovations;
+
+    private InnovationTracker tracker;
+    private int[] inNodes;
+    private int[] outNodes;
+    private int cursor = 0;
+
+    @Setup
+    public void setUp() {
+        tracker = new InnovationTracker(BenchmarkGenomes.INITIAL_NODES);
+        inNodes = new int[knownInnovations];
+        outNodes = new int[knownInnovations];
+        int width = (int) Math.ceil(Math.sqrt(knownInnovations));
+        for (int i = 0; i < knownInnovations; i++) {
+            inNodes[i] = i / width;
+            outNodes[i] = width + i % width;
+            tracker.getInnovation(inNodes[i], outNodes[i]);
+        }
+    }
+
+    @Benchmark
+    public int getInnovation() {
+        int i = cursor;
+        cursor = (i + 1 == knownInnovations) ? 0 : i + 1;
+        return tracker.getInnovation(inNodes[i], outNodes[i]);
+    }
+}
@@ -0,0 +1,66 @@
+package xor_neat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xor_common.ColumnBatch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagation d'un jeu de lignes : ligne par ligne (activate) contre par lots (activateBatch).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NeatBatchBenchmark {
+
+    @Param({"4", "256", "4096"})
+    public int rows;
+
+    @Param({"8", "32"})
+    public int hiddenNodes;
+
+    private NeatNetwork network;
+    private double[][] rowInputs;
+    private double[][] columnInputs;
+    private double[] output;
+
+    @Setup
+    public void setUp() {
+        InnovationTracker tracker = new InnovationTracker(BenchmarkGenomes.INITIAL_NODES);
+        network = NeatNetwork.compile(BenchmarkGenomes.grow(tracker, hiddenNodes, 4 * hiddenNodes));
+        SplittableRandom random = new SplittableRandom(42);
+        rowInputs = new double[rows][2];
+        for (double[] row : rowInputs) {
+            row[0] = random.nextDouble();
+            row[1] = random.nextDouble();
+        }
+        columnInputs = ColumnBatch.fromRows(rowInputs, 2);
+        output = new double[rows];
+    }
+
+    @Benchmark
+    public double[] perRow() {
+        for (int r = 0; r < rows; r++) output[r] = network.activate(rowInputs[r]);
+        return output;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        network.activateBatch(columnInputs, 0, rows, output);
+        return output;
+    }
+}
@@ -0,0 +1,61 @@
+package xor_neat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Évaluation NEAT : compilation du phénotype + 4 lignes XOR, et propagation seule.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NeatFitnessBenchmark {
+
+    private static final double[] INPUT = {1.0, 0.0};
+
+    @Param({"0", "8", "32"})
+    public int hiddenNodes;
+
+    @Param({"8", "32", "128"})
+    public int connections;
+
+    private NeatGenome genome;
+    private NeatNetwork network;
+
+    @Setup
+    public void setUp() {
+        InnovationTracker tracker = new InnovationTracker(BenchmarkGenomes.INITIAL_NODES);
+        genome = BenchmarkGenomes.grow(tracker, hiddenNodes, connections);
+        network = NeatNetwork.compile(genome);
+    }
+
+    @Benchmark
+    public double calculateFitness() {
+        return NeatXorSolver.calculateFitness(genome);
+    }
+
+    @Benchmark
+    public NeatNetwork compile() {
+        return NeatNetwork.compile(genome);
+    }
+
+    // Équivalent de l'ancien NeatXorSolver.predict (une ligne, réseau déjà compilé)
+    @Benchmark
+    public double predict() {
+        return network.activate(INPUT);
+    }
+}
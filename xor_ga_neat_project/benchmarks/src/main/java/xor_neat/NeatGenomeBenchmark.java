@@ -0,0 +1,69 @@
+package xor_neat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opérateurs génétiques de NEAT, selon la taille des génomes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NeatGenomeBenchmark {
+
+    @Param({"0", "8", "32"})
+    public int hiddenNodes;
+
+    @Param({"8", "32", "128"})
+    public int connections;
+
+    private InnovationTracker tracker;
+    private NeatGenome parent1;
+    private NeatGenome parent2;
+
+    @Setup
+    public void setUp() {
+        tracker = new InnovationTracker(BenchmarkGenomes.INITIAL_NODES);
+        parent1 = BenchmarkGenomes.grow(tracker, hiddenNodes, connections);
+        parent2 = BenchmarkGenomes.grow(tracker, hiddenNodes, connections);
+        parent1.setFitness(2.0);
+        parent2.setFitness(1.0);
+    }
+
+    @Benchmark
+    public double compatibilityDistance() {
+        return parent1.compatibilityDistance(parent2, BenchmarkGenomes.config());
+    }
+
+    @Benchmark
+    public NeatGenome crossover() {
+        return NeatGenome.crossover(parent1, parent2);
+    }
+
+    @Benchmark
+    public NeatGenome copy() {
+        return parent1.copy();
+    }
+
+    // Mutation sur une copie : le génome de référence ne grossit pas d'une itération à l'autre
+    @Benchmark
+    public NeatGenome copyAndMutate() {
+        NeatGenome child = parent1.copy();
+        child.mutate(BenchmarkGenomes.config(), tracker);
+        return child;
+    }
+}
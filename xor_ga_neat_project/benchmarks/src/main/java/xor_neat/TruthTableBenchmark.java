@@ -0,0 +1,74 @@
+package xor_neat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xor_common.ArrayTask;
+import xor_common.TruthTableTask;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Évaluation d'un réseau NEAT sur la table de vérité de la parité à n bits : lignes générées
+ * (TruthTableTask) contre lignes en mémoire (ArrayTask), et comptage des lignes mal classées.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TruthTableBenchmark {
+
+    @Param({"4", "8", "12"})
+    public int bits;
+
+    private NeatNetwork network;
+    private TruthTableTask truthTable;
+    private ArrayTask array;
+
+    @Setup
+    public void setUp() {
+        InnovationTracker tracker = new InnovationTracker(bits + 2);
+        NeatGenome genome = new NeatGenome(bits, 1, tracker);
+        for (int i = 0; i < 4; i++) genome.mutateAddNode(tracker);
+        genome.mutate(BenchmarkGenomes.config(), tracker);
+        network = NeatNetwork.compile(genome);
+
+        truthTable = TruthTableTask.parity(bits);
+        int rows = (int) truthTable.getRowCount();
+        double[][] inputs = new double[bits][rows];
+        double[][] targets = new double[1][rows];
+        truthTable.readRows(0, rows, inputs, targets);
+        double[][] inputRows = new double[rows][bits];
+        double[][] targetRows = new double[rows][1];
+        for (int r = 0; r < rows; r++) {
+            for (int i = 0; i < bits; i++) inputRows[r][i] = inputs[i][r];
+            targetRows[r][0] = targets[0][r];
+        }
+        array = new ArrayTask("Parité-" + bits, inputRows, targetRows);
+    }
+
+    @Benchmark
+    public double truthTableError() {
+        return truthTable.sumSquaredError(network);
+    }
+
+    @Benchmark
+    public double arrayError() {
+        return array.sumSquaredError(network);
+    }
+
+    @Benchmark
+    public long misclassifiedRows() {
+        return truthTable.misclassifiedRows(network);
+    }
+}
@@ -38,6 +38,7 @@ def load_data(csv_file_path):
         df = pd.read_csv(
             csv_file_path,
             header=0,
+            usecols=[0, 1, 2],  # Les colonnes supplémentaires (espèces, structure...) sont ignorées
             names=['Generation_Corrupted', 'MaxFitness', 'AvgFitness']
         )
 
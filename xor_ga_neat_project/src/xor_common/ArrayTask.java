@@ -0,0 +1,83 @@
+package xor_common;
+
+/**
+ * Tâche dont toutes les lignes tiennent en mémoire (rangées par colonnes).
+ * L'évaluation passe les colonnes au modèle sans copie ; sorties dans un tampon par thread.
+ */
+public class ArrayTask implements EvaluationTask {
+
+    private final String name;
+    private final double[][] inputs;  // inputs[i][r]
+    private final double[][] targets; // targets[o][r]
+    private final int rowCount;
+    private final ThreadLocal<double[][]> outputs;
+
+    /**
+     * @param inputRows lignes d'entrées (inputRows[r][i])
+     * @param targetRows sorties attendues (targetRows[r][o])
+     */
+    public ArrayTask(String name, double[][] inputRows, double[][] targetRows) {
+        if (inputRows.length != targetRows.length || inputRows.length == 0) {
+            throw new IllegalArgumentException("Lignes d'entrée et de sortie incohérentes : "
+                    + inputRows.length + " / " + targetRows.length);
+        }
+        this.name = name;
+        this.rowCount = inputRows.length;
+        this.inputs = ColumnBatch.fromRows(inputRows, inputRows[0].length);
+        this.targets = ColumnBatch.fromRows(targetRows, targetRows[0].length);
+        int width = Math.min(rowCount, ColumnBatch.BLOCK_ROWS);
+        this.outputs = ThreadLocal.withInitial(() -> new double[targets.length][width]);
+    }
+
+    /**
+     * Le problème XOR (4 lignes, 2 entrées, 1 sortie).
+     */
+    public static ArrayTask xor() {
+        return new ArrayTask("XOR",
+                new double[][]{{0, 0}, {0, 1}, {1, 0}, {1, 1}},
+                new double[][]{{0}, {1}, {1}, {0}});
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getInputCount() {
+        return inputs.length;
+    }
+
+    @Override
+    public int getOutputCount() {
+        return targets.length;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void readRows(long start, int count, double[][] inputBuffer, double[][] targetBuffer) {
+        for (int i = 0; i < inputs.length; i++) System.arraycopy(inputs[i], (int) start, inputBuffer[i], 0, count);
+        for (int o = 0; o < targets.length; o++) System.arraycopy(targets[o], (int) start, targetBuffer[o], 0, count);
+    }
+
+    @Override
+    public double sumSquaredError(BatchModel model, double errorBound, long[] rowsRead) {
+        double[][] predictions = outputs.get();
+        int width = predictions[0].length;
+        double sse = 0.0;
+        int start = 0;
+        while (start < rowCount) {
+            int n = Math.min(width, rowCount - start);
+            model.predict(inputs, start, n, predictions);
+            sse += EvaluationTask.blockError(targets, start, predictions, n);
+            start += n;
+            if (sse > errorBound) break;
+        }
+        if (rowsRead != null) rowsRead[0] = start;
+        return sse;
+    }
+}
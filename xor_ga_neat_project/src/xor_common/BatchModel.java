@@ -0,0 +1,15 @@
+package xor_common;
+
+/**
+ * Modèle évalué par lots (réseau NEAT compilé, réseau du GA avec ses paramètres décodés).
+ */
+@FunctionalInterface
+public interface BatchModel {
+
+    /**
+     * Calcule les sorties de rows lignes rangées par colonnes (voir ColumnBatch) :
+     * inputs[i][offset + r] est l'entrée i de la ligne r ; écrit la sortie o de la ligne r
+     * dans outputs[o][r]. Les entrées sont en lecture seule.
+     */
+    void predict(double[][] inputs, int offset, int rows, double[][] outputs);
+}
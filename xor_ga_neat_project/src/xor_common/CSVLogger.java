@@ -1,43 +1,293 @@
 package xor_common;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Journal CSV de la progression (une ligne par génération).
+ *
+ * En mode asynchrone, logGeneration() ne fait que copier les valeurs dans un tampon
+ * circulaire borné (un producteur : la boucle d'évolution, un consommateur : le thread
+ * d'écriture). Le thread d'écriture vide le tampon par lots et force l'écriture sur disque
+ * tous les FLUSH_BATCH_SIZE enregistrements ou toutes les FLUSH_INTERVAL_MS millisecondes.
+ * Aucun enregistrement n'est perdu : si le tampon est plein, la boucle d'évolution attend
+ * que le thread d'écriture libère un emplacement (le CSV sert aux comparaisons d'exécutions
+ * et à la reprise, une ligne manquante le fausserait).
+ */
 public class CSVLogger implements java.lang.AutoCloseable {
 
+    // Politique d'écriture
+    private static final int BUFFER_CAPACITY = 4096; // Enregistrements (puissance de 2)
+    private static final int FLUSH_BATCH_SIZE = 64;
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final long FULL_BUFFER_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final String BASE_HEADER = "Generation,MaxFitness,AvgFitness";
+    private static final double[] NO_EXTRAS = new double[0];
+
     private final String filename;
-    private PrintWriter writer;
+    private BufferedWriter writer;
+    private final int extraColumns;
+
+    // Tampon circulaire : enregistrement k aux positions [k * stride, (k + 1) * stride)
+    private final int stride;
+    private final int[] generations;
+    private final double[] values;
+    private volatile long head = 0; // Prochain enregistrement à écrire (consommateur)
+    private volatile long tail = 0; // Prochain emplacement libre (producteur)
+    private long fullBufferWaits = 0;
+
+    // Mode synchrone : compteur de lignes depuis le dernier flush
+    private int unflushed = 0;
+
+    private final Thread writerThread;
+    private volatile boolean closing = false;
+    private volatile IOException writeError;
 
     /**
-     * Initialise le logger et écrit l'en-tête du fichier CSV.
+     * Initialise le logger (mode synchrone) et écrit l'en-tête du fichier CSV.
      */
     public CSVLogger(String filename) throws IOException {
+        this(filename, false);
+    }
+
+    /**
+     * @param asynchronous écriture déléguée à un thread de fond
+     * @param extraColumns noms des colonnes supplémentaires (après AvgFitness)
+     */
+    public CSVLogger(String filename, boolean asynchronous, String... extraColumns) throws IOException {
+        this(filename, asynchronous, -1, extraColumns);
+    }
+
+    /**
+     * Reprise d'une exécution : les lignes du fichier existant jusqu'à la génération lastGeneration
+     * incluse sont conservées (les suivantes, écrites après le point de reprise, seront réécrites).
+     * @param lastGeneration dernière génération à garder (-1 = nouveau fichier)
+     */
+    public CSVLogger(String filename, boolean asynchronous, int lastGeneration, String... extraColumns) throws IOException {
         this.filename = filename;
-        this.writer = new PrintWriter(new FileWriter(this.filename, false));
+        List<String> kept = (lastGeneration >= 0) ? readRowsUpTo(filename, lastGeneration) : List.of();
+        this.writer = new BufferedWriter(new FileWriter(this.filename, false));
+        this.extraColumns = extraColumns.length;
 
         // En-tête du CSV
-        writer.println("Generation,MaxFitness,AvgFitness");
+        StringBuilder header = new StringBuilder(BASE_HEADER);
+        for (String column : extraColumns) {
+            header.append(',').append(column);
+        }
+        writer.write(header.append('\n').toString());
+        for (String row : kept) {
+            writer.write(row);
+            writer.write('\n');
+        }
         writer.flush();
+
+        this.stride = 2 + this.extraColumns;
+        if (asynchronous) {
+            this.generations = new int[BUFFER_CAPACITY];
+            this.values = new double[BUFFER_CAPACITY * stride];
+            this.writerThread = new Thread(this::drainLoop, "csv-writer-" + filename);
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        } else {
+            this.generations = null;
+            this.values = null;
+            this.writerThread = null;
+        }
+    }
+
+    // Lignes de données du fichier existant dont la génération est <= lastGeneration
+    private static List<String> readRowsUpTo(String filename, int lastGeneration) throws IOException {
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) return List.of();
+        List<String> rows = new ArrayList<>();
+        List<String> lines = Files.readAllLines(path);
+        if (lines.isEmpty()) return rows;
+        long columns = lines.get(0).chars().filter(c -> c == ',').count();
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comma = line.indexOf(',');
+            // Ligne incomplète (arrêt pendant l'écriture) : ignorée
+            if (comma <= 0 || line.chars().filter(c -> c == ',').count() != columns) continue;
+            try {
+                if (Integer.parseInt(line.substring(0, comma)) <= lastGeneration) rows.add(line);
+            } catch (NumberFormatException e) {
+                // Génération illisible : ligne ignorée
+            }
+        }
+        return rows;
     }
 
     /**
      * Ajoute une ligne de données (une génération) au fichier CSV.
      */
     public void logGeneration(int generation, double maxFitness, double avgFitness) {
-        writer.printf(Locale.US, "%d,%.6f,%.6f\n", generation, maxFitness, avgFitness);
+        logGeneration(generation, maxFitness, avgFitness, NO_EXTRAS);
+    }
+
+    /**
+     * Ajoute une ligne avec les colonnes supplémentaires déclarées à la construction
+     * (nombre d'espèces, nœuds, connexions, temps d'évaluation...).
+     * Les valeurs entières sont écrites sans décimales.
+     */
+    public void logGeneration(int generation, double maxFitness, double avgFitness, double... extras) {
+        if (extras.length != extraColumns) {
+            throw new IllegalArgumentException("Nombre de colonnes supplémentaires attendu : "
+                    + extraColumns + ", reçu : " + extras.length);
+        }
+
+        if (writerThread == null) {
+            try {
+                writeRecord(generation, maxFitness, avgFitness, extras, 0);
+                if (++unflushed >= FLUSH_BATCH_SIZE) {
+                    writer.flush();
+                    unflushed = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erreur d'écriture du CSV " + filename, e);
+            }
+            return;
+        }
+
+        checkWriter();
+        long t = tail;
+        if (t - head >= BUFFER_CAPACITY) {
+            awaitFreeSlot(t);
+        }
+        int slot = (int) (t & (BUFFER_CAPACITY - 1));
+        int base = slot * stride;
+        generations[slot] = generation;
+        values[base] = maxFitness;
+        values[base + 1] = avgFitness;
+        System.arraycopy(extras, 0, values, base + 2, extraColumns);
+        tail = t + 1; // Publication (écriture volatile après le remplissage)
+
+        if (t + 1 - head >= FLUSH_BATCH_SIZE) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    // Tampon plein : réveille le thread d'écriture et attend (par courtes pauses) qu'il libère un emplacement
+    private void awaitFreeSlot(long t) {
+        fullBufferWaits++;
+        while (t - head >= BUFFER_CAPACITY) {
+            checkWriter();
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(this, FULL_BUFFER_WAIT_NANOS);
+        }
+    }
+
+    // Thread d'écriture arrêté (erreur d'écriture) : même exception que le mode synchrone,
+    // plutôt que de remplir un tampon que plus personne ne vide
+    private void checkWriter() {
+        if (writeError != null || !writerThread.isAlive()) {
+            throw new UncheckedIOException("Erreur d'écriture du CSV " + filename,
+                    (writeError != null) ? writeError : new IOException("thread d'écriture arrêté"));
+        }
+    }
+
+    // --- Thread d'écriture ---
+
+    private void drainLoop() {
+        long lastFlush = System.nanoTime();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+        int pending = 0;
+        try {
+            while (true) {
+                boolean stopping = closing; // Lu avant le vidage : rien n'est perdu à la fermeture
+                pending += drain();
+
+                long now = System.nanoTime();
+                if (pending > 0 && (stopping || pending >= FLUSH_BATCH_SIZE || now - lastFlush >= flushIntervalNanos)) {
+                    writer.flush();
+                    pending = 0;
+                    lastFlush = now;
+                }
+                if (stopping) return;
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        } catch (IOException e) {
+            writeError = e;
+        }
+    }
+
+    // Écrit tous les enregistrements publiés et renvoie leur nombre
+    private int drain() throws IOException {
+        long h = head;
+        long t = tail;
+        for (long k = h; k < t; k++) {
+            int slot = (int) (k & (BUFFER_CAPACITY - 1));
+            int base = slot * stride;
+            writeRecord(generations[slot], values[base], values[base + 1], values, base + 2);
+            head = k + 1; // Libère l'emplacement pour le producteur
+        }
+        return (int) (t - h);
+    }
+
+    private void writeRecord(int generation, double maxFitness, double avgFitness,
+                             double[] extras, int extrasOffset) throws IOException {
+        StringBuilder line = new StringBuilder(32 + 12 * extraColumns);
+        line.append(generation).append(',');
+        appendDecimal(line, maxFitness).append(',');
+        appendDecimal(line, avgFitness);
+        for (int i = 0; i < extraColumns; i++) {
+            double value = extras[extrasOffset + i];
+            line.append(',');
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                line.append((long) value);
+            } else {
+                appendDecimal(line, value);
+            }
+        }
+        writer.write(line.append('\n').toString());
+    }
+
+    private static StringBuilder appendDecimal(StringBuilder line, double value) {
+        return line.append(String.format(Locale.US, "%.6f", value));
     }
 
     /**
-     * Ferme le PrintWriter. DOIT être appelé à la fin du programme.
+     * Nombre de fois où logGeneration() a dû attendre faute de place dans le tampon (mode asynchrone).
+     */
+    public long getFullBufferWaits() {
+        return fullBufferWaits;
+    }
+
+    /**
+     * Vide le tampon, arrête le thread d'écriture et ferme le fichier.
+     * DOIT être appelé à la fin du programme.
      */
     @Override // Ajouté pour AutoCloseable
     public void close() {
+        if (writerThread != null) {
+            closing = true;
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         if (writer != null) {
-            writer.close();
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (writeError == null) writeError = e;
+            }
+        }
+        if (writeError != null) {
+            System.err.println("Erreur d'écriture du CSV " + filename + " : " + writeError.getMessage());
         }
         System.out.println("Fichier de progression CSV enregistré dans : " + filename);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package xor_common;
+
+/**
+ * Disposition par colonnes d'un jeu de lignes : columns[i][r] = valeur i de la ligne r.
+ *
+ * Les évaluations par lots (NeatNetwork.activateBatch, NeuralNet.predictBatch) calculent chaque
+ * neurone pour toutes les lignes d'un bloc à la fois : leurs boucles internes parcourent des
+ * tableaux contigus, sans dépendance d'une ligne à l'autre, et le JIT (C2) les vectorise (SIMD).
+ * Les lignes sont traitées par blocs de BLOCK_ROWS pour que les valeurs intermédiaires
+ * (un tableau par neurone) restent dans le cache.
+ */
+public final class ColumnBatch {
+
+    public static final int BLOCK_ROWS = 256;
+
+    private ColumnBatch() {
+    }
+
+    /**
+     * Transpose les count premières colonnes de rows.
+     */
+    public static double[][] fromRows(double[][] rows, int count) {
+        double[][] columns = new double[count][rows.length];
+        for (int r = 0; r < rows.length; r++) {
+            for (int i = 0; i < count; i++) {
+                columns[i][r] = rows[r][i];
+            }
+        }
+        return columns;
+    }
+}
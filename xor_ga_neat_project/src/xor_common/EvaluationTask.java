@@ -0,0 +1,125 @@
+package xor_common;
+
+import java.util.Locale;
+
+/**
+ * Tâche d'évaluation : un jeu de lignes (entrées, sorties attendues) sur lequel on mesure
+ * l'erreur d'un modèle. Les algorithmes (NEAT, GA) en tirent leur nombre d'entrées et de
+ * sorties et en dérivent leur fitness ; la tâche ne fait que fournir les lignes.
+ *
+ * Les implémentations doivent accepter des appels concurrents (une évaluation par thread).
+ */
+public interface EvaluationTask {
+
+    String getName();
+
+    int getInputCount();
+
+    int getOutputCount();
+
+    long getRowCount();
+
+    /**
+     * Copie count lignes à partir de la ligne start, par colonnes :
+     * inputs[i][r] = entrée i, targets[o][r] = sortie attendue o de la ligne start + r.
+     */
+    void readRows(long start, int count, double[][] inputs, double[][] targets);
+
+    /**
+     * Somme des erreurs quadratiques du modèle sur toutes les lignes et toutes les sorties.
+     * Les lignes défilent par blocs de ColumnBatch.BLOCK_ROWS : la mémoire utilisée ne dépend
+     * pas du nombre de lignes. Les erreurs sont cumulées ligne par ligne, dans l'ordre.
+     */
+    default double sumSquaredError(BatchModel model) {
+        return sumSquaredError(model, Double.POSITIVE_INFINITY, null);
+    }
+
+    /**
+     * Évaluation interrompue : comme sumSquaredError(model), mais s'arrête après le premier bloc
+     * où l'erreur cumulée dépasse errorBound, s'il reste des lignes. rowsRead[0] (rowsRead peut
+     * être null) reçoit le nombre de lignes lues : moins de getRowCount() = évaluation interrompue,
+     * l'erreur est alors partielle (déjà supérieure à errorBound, inférieure ou égale à l'erreur
+     * totale) ; toutes les lignes lues = erreur exacte, même au-delà de errorBound.
+     */
+    default double sumSquaredError(BatchModel model, double errorBound, long[] rowsRead) {
+        long rowCount = getRowCount();
+        int width = (int) Math.min(rowCount, ColumnBatch.BLOCK_ROWS);
+        double[][] inputs = new double[getInputCount()][width];
+        double[][] targets = new double[getOutputCount()][width];
+        double[][] outputs = new double[getOutputCount()][width];
+
+        double sse = 0.0;
+        long start = 0;
+        while (start < rowCount) {
+            int n = (int) Math.min(width, rowCount - start);
+            readRows(start, n, inputs, targets);
+            model.predict(inputs, 0, n, outputs);
+            sse += blockError(targets, 0, outputs, n);
+            start += n;
+            if (sse > errorBound) break;
+        }
+        if (rowsRead != null) rowsRead[0] = start;
+        return sse;
+    }
+
+    /**
+     * Erreur maximale : une par sortie et par ligne (cibles et sorties dans [0, 1]).
+     * Les fitness "score - erreur" partent de là.
+     */
+    default double getMaxScore() {
+        return (double) getRowCount() * getOutputCount();
+    }
+
+    /**
+     * Tâche d'une famille : "xor", "parity" (size = nombre de bits) ou "multiplexer"
+     * (size = bits d'adresse).
+     */
+    static EvaluationTask named(String family, int size) {
+        switch (family) {
+            case "xor": return ArrayTask.xor();
+            case "parity": return TruthTableTask.parity(size);
+            case "multiplexer": return TruthTableTask.multiplexer(size);
+            default: throw new IllegalArgumentException("Tâche inconnue : " + family + " (xor, parity, multiplexer)");
+        }
+    }
+
+    /**
+     * Somme des erreurs quadratiques d'un bloc de n lignes (cibles à partir de targetOffset).
+     */
+    static double blockError(double[][] targets, int targetOffset, double[][] outputs, int n) {
+        double sse = 0.0;
+        for (int r = 0; r < n; r++) {
+            for (int o = 0; o < outputs.length; o++) {
+                double error = targets[o][targetOffset + r] - outputs[o][r];
+                sse += error * error;
+            }
+        }
+        return sse;
+    }
+
+    /**
+     * Sorties d'un modèle pour la ligne r, pour l'affichage : "0.0123" ou "0.0123, 0.9876".
+     */
+    static String formatOutputs(double[][] outputs, int r) {
+        StringBuilder text = new StringBuilder();
+        for (int o = 0; o < outputs.length; o++) {
+            if (o > 0) text.append(", ");
+            text.append(String.format("%.4f", outputs[o][r]));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Valeurs de la ligne r des colonnes données, pour l'affichage : "0, 1" ou "0.2500, 1".
+     */
+    static String formatRow(double[][] columns, int r) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) text.append(", ");
+            double value = columns[i][r];
+            text.append((value == Math.rint(value)) ? String.format(Locale.US, "%.0f", value)
+                    : String.format(Locale.US, "%.4f", value));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package xor_common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU borné des fitness, indexé par un hash 64 bits du contenu du génome
+ * (structure + poids). Permet de ne pas réévaluer les individus identiques.
+ * Thread-safe (accès synchronisés) pour l'évaluation parallèle.
+ */
+public class FitnessCache {
+
+    private final LinkedHashMap<Long, Double> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    public FitnessCache(int capacity) {
+        // accessOrder = true : l'entrée la moins récemment utilisée est évincée en premier
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Renvoie le fitness mémorisé pour ce hash, ou null s'il est absent.
+     */
+    public synchronized Double get(long contentHash) {
+        Double fitness = entries.get(contentHash);
+        if (fitness != null) hits++;
+        else misses++;
+        return fitness;
+    }
+
+    public synchronized void put(long contentHash, double fitness) {
+        entries.put(contentHash, fitness);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Remet les compteurs à zéro (appelé à chaque génération).
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
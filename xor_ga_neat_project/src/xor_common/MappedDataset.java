@@ -0,0 +1,120 @@
+package xor_common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Jeu de données binaire projeté en mémoire : float32 petit-boutiste, ligne après ligne
+ * (inputCount entrées puis outputCount sorties attendues), sans en-tête — le format de
+ * numpy.ndarray.astype('<f4').tofile().
+ *
+ * Le fichier n'est jamais chargé sur le tas : les évaluations lisent les lignes dans la projection,
+ * bloc par bloc (voir EvaluationTask.sumSquaredError), et le système garde en cache les pages
+ * lues. Au-delà de 1 Go, le fichier est projeté en plusieurs segments de lignes entières.
+ */
+public class MappedDataset implements EvaluationTask {
+
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final String name;
+    private final int inputCount;
+    private final int outputCount;
+    private final int stride; // Floats par ligne
+    private final long rowCount;
+    private final int segmentRows;
+    private final FloatBuffer[] segments; // Lectures absolues uniquement : partageables entre threads
+
+    public MappedDataset(Path file, int inputCount, int outputCount) throws IOException {
+        if (inputCount <= 0 || outputCount <= 0) {
+            throw new IllegalArgumentException("Nombre d'entrées / sorties invalide : " + inputCount + " / " + outputCount);
+        }
+        this.name = file.getFileName().toString();
+        this.inputCount = inputCount;
+        this.outputCount = outputCount;
+        this.stride = inputCount + outputCount;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long rowBytes = 4L * stride;
+            if (size == 0 || size % rowBytes != 0) {
+                throw new IOException("Taille de " + file + " (" + size + " octets) : pas un nombre entier de lignes de "
+                        + stride + " floats");
+            }
+            this.rowCount = size / rowBytes;
+            this.segmentRows = (int) Math.max(1, MAX_SEGMENT_BYTES / rowBytes);
+            int segmentCount = (int) ((rowCount + segmentRows - 1) / segmentRows);
+            this.segments = new FloatBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long firstRow = (long) s * segmentRows;
+                long rows = Math.min(segmentRows, rowCount - firstRow);
+                // La projection reste valide après la fermeture du canal
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, firstRow * rowBytes, rows * rowBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+        }
+    }
+
+    /**
+     * Écrit un jeu de données au format lu par MappedDataset (inputRows[r][i], targetRows[r][o]).
+     */
+    public static void write(Path file, double[][] inputRows, double[][] targetRows) throws IOException {
+        if (inputRows.length != targetRows.length) {
+            throw new IllegalArgumentException("Lignes d'entrée et de sortie incohérentes : "
+                    + inputRows.length + " / " + targetRows.length);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (int r = 0; r < inputRows.length; r++) {
+                if (buffer.remaining() < 4 * (inputRows[r].length + targetRows[r].length)) {
+                    flush(channel, buffer);
+                }
+                for (double value : inputRows[r]) buffer.putFloat((float) value);
+                for (double value : targetRows[r]) buffer.putFloat((float) value);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getInputCount() {
+        return inputCount;
+    }
+
+    @Override
+    public int getOutputCount() {
+        return outputCount;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void readRows(long start, int count, double[][] inputs, double[][] targets) {
+        for (int r = 0; r < count; r++) {
+            long row = start + r;
+            FloatBuffer segment = segments[(int) (row / segmentRows)];
+            int base = (int) (row % segmentRows) * stride;
+            for (int i = 0; i < inputCount; i++) inputs[i][r] = segment.get(base + i);
+            for (int o = 0; o < outputCount; o++) targets[o][r] = segment.get(base + inputCount + o);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package xor_common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Générateur aléatoire courant du thread.
+ * Par défaut ThreadLocalRandom ; un composant (ou une tâche d'un travailleur) installe son
+ * propre flux, dérivé de la graine de l'exécution, pour que le résultat ne dépende ni du
+ * thread qui l'exécute ni du nombre de threads.
+ */
+public final class RandomStreams {
+
+    private static final ThreadLocal<RandomGenerator> CURRENT = new ThreadLocal<>();
+
+    private RandomStreams() {
+    }
+
+    public static RandomGenerator current() {
+        RandomGenerator random = CURRENT.get();
+        return (random != null) ? random : ThreadLocalRandom.current();
+    }
+
+    /**
+     * Installe un flux pour le thread courant (null = revenir à ThreadLocalRandom)
+     * et renvoie le flux précédemment installé, à restaurer ensuite.
+     */
+    public static RandomGenerator set(RandomGenerator random) {
+        RandomGenerator previous = CURRENT.get();
+        if (random != null) CURRENT.set(random);
+        else CURRENT.remove();
+        return previous;
+    }
+
+    /**
+     * Graine de l'exécution : celle passée en premier argument du programme, sinon la graine
+     * configurée ; 0 = graine tirée au hasard (affichée pour pouvoir rejouer l'exécution).
+     */
+    public static long resolveSeed(String[] args, long configuredSeed) {
+        long seed = (args != null && args.length > 0) ? Long.parseLong(args[0]) : configuredSeed;
+        while (seed == 0) {
+            seed = ThreadLocalRandom.current().nextLong();
+        }
+        return seed;
+    }
+
+    /**
+     * Flux racine d'une exécution : chaque composant en obtient un flux indépendant par split().
+     */
+    public static SplitMixRandom root(long seed) {
+        return new SplitMixRandom(seed);
+    }
+}
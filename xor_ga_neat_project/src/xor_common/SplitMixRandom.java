@@ -0,0 +1,82 @@
+package xor_common;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Générateur SplitMix64 divisible, identique à java.util.SplittableRandom (mêmes valeurs, même
+ * split()) mais dont l'état (graine courante, gamma) peut être lu et restauré : une exécution
+ * reprise depuis un point de sauvegarde tire exactement les mêmes nombres.
+ * Non thread-safe, comme SplittableRandom : un flux par thread.
+ */
+public final class SplitMixRandom implements RandomGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private final long gamma; // Impair
+
+    public SplitMixRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplitMixRandom(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Générateur dans l'état exact donné par getSeed() / getGamma().
+     */
+    public static SplitMixRandom restore(long seed, long gamma) {
+        if ((gamma & 1L) == 0) throw new IllegalArgumentException("Gamma pair : " + gamma);
+        return new SplitMixRandom(seed, gamma);
+    }
+
+    /**
+     * Nouveau flux indépendant ; avance ce flux (comme SplittableRandom.split()).
+     */
+    public SplitMixRandom split() {
+        return new SplitMixRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getGamma() {
+        return gamma;
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
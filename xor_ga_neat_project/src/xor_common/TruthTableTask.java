@@ -0,0 +1,218 @@
+package xor_common;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * Fonction booléenne à n entrées, évaluée sur ses 2^n lignes (table de vérité complète).
+ * La ligne r a pour entrée i le bit (n - 1 - i) de r : l'entrée 0 est le bit de poids fort,
+ * d'où l'ordre {0,0}, {0,1}, {1,0}, {1,1} de XOR.
+ *
+ * Rien n'est stocké par ligne : les entrées se déduisent du numéro de ligne, et les sorties
+ * attendues sont calculées en parallèle sur les bits, 64 lignes par mot de 64 bits (les colonnes
+ * d'entrée d'un mot sont des motifs fixes ou des constantes), puis gardées compactées (2^n bits).
+ */
+public class TruthTableTask implements EvaluationTask {
+
+    // Plus grande table acceptée : 2^30 lignes, 128 Mo de sorties compactées
+    public static final int MAX_INPUTS = 30;
+
+    // Colonne de l'entrée de bit b < 6 sur un mot de 64 lignes (ligne j = bit j du mot)
+    private static final long[] LOW_BIT_PATTERNS = {
+            0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+
+    private final String name;
+    private final int inputCount;
+    private final long rowCount;
+    private final long[] targetWords; // Sortie attendue de la ligne r : bit (r & 63) du mot r >>> 6
+    // {entrées, sorties} d'un bloc, par thread. Les blocs sont alignés : les entrées de bit
+    // < blockBits y sont écrites une fois pour toutes, les autres sont constantes sur un bloc
+    private final ThreadLocal<double[][][]> buffers;
+    private final int blockBits;
+
+    /**
+     * @param function sortie attendue de 64 lignes à la fois : reçoit les colonnes d'entrée d'un
+     *                 mot (une par entrée) et renvoie le mot des sorties (opérations bit à bit)
+     */
+    public TruthTableTask(String name, int inputCount, ToLongFunction<long[]> function) {
+        if (inputCount <= 0 || inputCount > MAX_INPUTS) {
+            throw new IllegalArgumentException("Nombre d'entrées invalide : " + inputCount + " (1 à " + MAX_INPUTS + ")");
+        }
+        this.name = name;
+        this.inputCount = inputCount;
+        this.rowCount = 1L << inputCount;
+        this.targetWords = new long[(int) ((rowCount + 63) >>> 6)];
+
+        long validMask = (rowCount >= 64) ? -1L : (1L << rowCount) - 1;
+        long[] columns = new long[inputCount];
+        for (int w = 0; w < targetWords.length; w++) {
+            for (int i = 0; i < inputCount; i++) columns[i] = inputWord(i, w);
+            targetWords[w] = function.applyAsLong(columns) & validMask;
+        }
+
+        int width = (int) Math.min(rowCount, ColumnBatch.BLOCK_ROWS);
+        this.blockBits = Integer.numberOfTrailingZeros(width);
+        this.buffers = ThreadLocal.withInitial(() -> {
+            double[][] inputs = new double[inputCount][width];
+            fillInputs(0, width, inputs);
+            return new double[][][]{inputs, new double[1][width]};
+        });
+    }
+
+    /**
+     * Parité à n bits : 1 si le nombre d'entrées à 1 est impair (XOR pour n = 2).
+     */
+    public static TruthTableTask parity(int bits) {
+        return new TruthTableTask("Parité-" + bits, bits, columns -> {
+            long word = 0;
+            for (long column : columns) word ^= column;
+            return word;
+        });
+    }
+
+    /**
+     * Multiplexeur à k bits d'adresse : les k premières entrées désignent laquelle des 2^k
+     * entrées de données suivantes recopier (k = 2 : multiplexeur-6, k = 3 : multiplexeur-11).
+     */
+    public static TruthTableTask multiplexer(int addressBits) {
+        if (addressBits <= 0 || addressBits + (1 << Math.min(addressBits, 5)) > MAX_INPUTS) {
+            throw new IllegalArgumentException("Nombre de bits d'adresse invalide : " + addressBits);
+        }
+        int inputs = addressBits + (1 << addressBits);
+        return new TruthTableTask("Multiplexeur-" + inputs, inputs, columns -> {
+            long word = 0;
+            for (int address = 0; address < (1 << addressBits); address++) {
+                // Lignes dont l'adresse vaut 'address' (bit de poids fort = entrée 0)
+                long selected = -1L;
+                for (int j = 0; j < addressBits; j++) {
+                    boolean set = ((address >>> (addressBits - 1 - j)) & 1) != 0;
+                    selected &= set ? columns[j] : ~columns[j];
+                }
+                word |= selected & columns[addressBits + address];
+            }
+            return word;
+        });
+    }
+
+    // Colonne de l'entrée i sur les lignes [64w, 64w + 64)
+    private long inputWord(int i, int w) {
+        int bit = inputCount - 1 - i;
+        if (bit < 6) return LOW_BIT_PATTERNS[bit];
+        return ((((long) w << 6) >>> bit) & 1) != 0 ? -1L : 0L;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getInputCount() {
+        return inputCount;
+    }
+
+    @Override
+    public int getOutputCount() {
+        return 1;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void readRows(long start, int count, double[][] inputs, double[][] targets) {
+        fillInputs(start, count, inputs);
+        for (int r = 0; r < count; r++) targets[0][r] = target(start + r);
+    }
+
+    // Entrées des lignes [start, start + count) ; une entrée constante sur le bloc est remplie d'un coup
+    private void fillInputs(long start, int count, double[][] inputs) {
+        long last = start + count - 1;
+        for (int i = 0; i < inputCount; i++) {
+            int bit = inputCount - 1 - i;
+            double[] column = inputs[i];
+            if ((start >>> bit) == (last >>> bit)) {
+                Arrays.fill(column, 0, count, (double) ((start >>> bit) & 1));
+            } else {
+                for (int r = 0; r < count; r++) column[r] = (double) (((start + r) >>> bit) & 1);
+            }
+        }
+    }
+
+    // Bloc aligné de width lignes à partir de start : seules les entrées de bit >= blockBits changent
+    private void fillBlockInputs(long start, int count, double[][] inputs) {
+        for (int i = 0; i < inputCount - blockBits; i++) {
+            int bit = inputCount - 1 - i;
+            Arrays.fill(inputs[i], 0, count, (double) ((start >>> bit) & 1));
+        }
+    }
+
+    private double target(long row) {
+        return (double) ((targetWords[(int) (row >>> 6)] >>> (row & 63)) & 1);
+    }
+
+    /**
+     * Même résultat que la version par défaut, sans allocation ni copie des sorties attendues :
+     * elles sont lues directement dans les mots compactés.
+     */
+    @Override
+    public double sumSquaredError(BatchModel model, double errorBound, long[] rowsRead) {
+        double[][][] buffer = buffers.get();
+        double[][] inputs = buffer[0];
+        double[][] outputs = buffer[1];
+        int width = inputs[0].length;
+
+        double sse = 0.0;
+        long start = 0;
+        while (start < rowCount) {
+            int n = (int) Math.min(width, rowCount - start);
+            fillBlockInputs(start, n, inputs);
+            model.predict(inputs, 0, n, outputs);
+            double[] output = outputs[0];
+            double blockSse = 0.0; // Cumul par bloc, comme EvaluationTask.blockError
+            for (int r = 0; r < n; r++) {
+                double error = target(start + r) - output[r];
+                blockSse += error * error;
+            }
+            sse += blockSse;
+            start += n;
+            if (sse > errorBound) break;
+        }
+        if (rowsRead != null) rowsRead[0] = start;
+        return sse;
+    }
+
+    /**
+     * Nombre de lignes mal classées (sortie du mauvais côté de 0.5). Les sorties d'un mot de
+     * 64 lignes sont compactées en bits, comparées aux sorties attendues par XOR et comptées
+     * par popcount. 0 = la table de vérité est entièrement résolue.
+     */
+    public long misclassifiedRows(BatchModel model) {
+        double[][][] buffer = buffers.get();
+        double[][] inputs = buffer[0];
+        double[][] outputs = buffer[1];
+        int width = inputs[0].length;
+
+        long errors = 0;
+        for (long start = 0; start < rowCount; start += width) {
+            int n = (int) Math.min(width, rowCount - start);
+            fillBlockInputs(start, n, inputs);
+            model.predict(inputs, 0, n, outputs);
+            double[] output = outputs[0];
+            // Blocs alignés sur 64 lignes (BLOCK_ROWS est un multiple de 64)
+            for (int offset = 0; offset < n; offset += 64) {
+                int m = Math.min(64, n - offset);
+                long predicted = 0;
+                for (int r = 0; r < m; r++) {
+                    if (output[offset + r] > 0.5) predicted |= 1L << r;
+                }
+                errors += Long.bitCount(predicted ^ targetWords[(int) ((start + offset) >>> 6)]);
+            }
+        }
+        return errors;
+    }
+}
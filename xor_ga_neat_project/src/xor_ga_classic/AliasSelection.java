@@ -0,0 +1,64 @@
+package xor_ga_classic;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sélection proportionnelle au fitness par la méthode des alias de Walker (variante de Vose).
+ * Table construite en O(N) par génération, puis chaque tirage coûte O(1).
+ */
+public class AliasSelection implements SelectionStrategy {
+
+    private List<Individual> population;
+    private double[] probability = new double[0];
+    private int[] alias = new int[0];
+    private int[] small = new int[0];
+    private int[] large = new int[0];
+    private boolean uniform;
+
+    @Override
+    public void prepare(List<Individual> population) {
+        this.population = population;
+        int size = population.size();
+        if (probability.length != size) {
+            probability = new double[size];
+            alias = new int[size];
+            small = new int[size];
+            large = new int[size];
+        }
+
+        double total = 0.0;
+        for (Individual ind : population) total += ind.getFitness();
+        uniform = total <= 1e-9;
+        if (uniform) return;
+
+        // Probabilités mises à l'échelle (moyenne 1) et répartition petits / grands
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            probability[i] = population.get(i).getFitness() * size / total;
+            if (probability[i] < 1.0) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            alias[less] = more;
+            probability[more] = (probability[more] + probability[less]) - 1.0;
+            if (probability[more] < 1.0) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+        // Restes (erreurs d'arrondi) : colonnes pleines
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) probability[small[--smallCount]] = 1.0;
+    }
+
+    @Override
+    public Individual select(RandomGenerator random) {
+        int column = random.nextInt(population.size());
+        if (uniform || random.nextDouble() < probability[column]) {
+            return population.get(column);
+        }
+        return population.get(alias[column]);
+    }
+}
@@ -1,86 +1,217 @@
 package xor_ga_classic;
-import java.util.Random;
+import xor_common.FitnessCache;
+import xor_common.RandomStreams;
+
+import java.util.random.RandomGenerator;
 
 public class Individual {
 
-    private String genome;
+    // Réseau (et tâche) dont le génome code les paramètres
+    private final NeuralNet net;
+    // Génome compacté : bit i dans le mot i / 64, du bit de poids fort vers le poids faible
+    // (144 bits = 3 longs pour XOR). Les bits au-delà de net.getGenomeLength() restent à 0.
+    private final long[] genes;
     private double fitness;
-    private static final Random RANDOM = new Random();
+    // Dirty : le fitness doit être recalculé (nouvel individu ou mutation)
+    private boolean dirty = true;
+    // Fitness partiel : évaluation interrompue sous le seuil, le fitness n'est qu'un majorant
+    private boolean partial = false;
 
     // Constantes de la GA
     private static final double MUTATION_RATE = 0.01;
     private static final double CROSSOVER_RATE = 0.9;
+    // Pour l'échantillonnage géométrique des positions mutées
+    private static final double LOG_NO_MUTATION = Math.log(1.0 - MUTATION_RATE);
+
+    // Flux aléatoire du thread courant (flux de variation installé par Main, dérivé de la graine)
+    private static RandomGenerator random() {
+        return RandomStreams.current();
+    }
 
     /**
      * Constructeur pour initialiser un individu aléatoirement.
      */
-    public Individual() {
-        this.genome = generateRandomGenome();
+    public Individual(NeuralNet net) {
+        this.net = net;
+        this.genes = generateRandomGenome();
         this.fitness = 0.0;
     }
 
     /**
      * Constructeur pour créer un individu à partir d'un génome existant (pour le croisement).
+     * Le tableau n'est pas copié : l'individu en devient propriétaire.
      */
-    public Individual(String genome) {
-        this.genome = genome;
+    public Individual(NeuralNet net, long[] genes) {
+        this.net = net;
+        this.genes = genes;
         this.fitness = 0.0;
     }
 
     // --- Méthodes d'Initialisation ---
 
-    private String generateRandomGenome() {
-        StringBuilder sb = new StringBuilder(NeuralNet.GENOME_LENGTH);
-        for (int i = 0; i < NeuralNet.GENOME_LENGTH; i++) {
-            sb.append(RANDOM.nextInt(2)); // 0 ou 1
+    private long[] generateRandomGenome() {
+        int length = net.getGenomeLength();
+        long[] words = new long[(length + 63) >>> 6];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = random().nextLong();
         }
-        return sb.toString();
+        if (length % 64 != 0) {
+            words[words.length - 1] &= -1L << (64 - length % 64);
+        }
+        return words;
     }
 
     // --- Opérateurs Génétiques ---
 
     /**
-     * Croisement en un point (One-Point Crossover).
+     * Croisement en un point (One-Point Crossover), par masques sur les mots.
      */
     public static Individual[] crossover(Individual parent1, Individual parent2) {
-        if (RANDOM.nextDouble() < CROSSOVER_RATE) {
-            int crossoverPoint = RANDOM.nextInt(NeuralNet.GENOME_LENGTH - 2) + 1; // Point entre 1 et Longueur-1
-
-            String genome1 = parent1.getGenome();
-            String genome2 = parent2.getGenome();
+        if (random().nextDouble() < CROSSOVER_RATE) {
+            NeuralNet net = parent1.net;
+            int crossoverPoint = random().nextInt(net.getGenomeLength() - 2) + 1; // Point entre 1 et Longueur-1
+
+            long[] genome1 = parent1.genes;
+            long[] genome2 = parent2.genes;
+            int words = genome1.length;
+            long[] childGenome1 = new long[words];
+            long[] childGenome2 = new long[words];
+
+            // Mots entièrement avant / après le point de croisement
+            int cutWord = crossoverPoint >>> 6;
+            for (int w = 0; w < cutWord; w++) {
+                childGenome1[w] = genome1[w];
+                childGenome2[w] = genome2[w];
+            }
+            for (int w = cutWord + 1; w < words; w++) {
+                childGenome1[w] = genome2[w];
+                childGenome2[w] = genome1[w];
+            }
 
-            String childGenome1 = genome1.substring(0, crossoverPoint) + genome2.substring(crossoverPoint);
-            String childGenome2 = genome2.substring(0, crossoverPoint) + genome1.substring(crossoverPoint);
+            // Mot coupé : les bits de poids fort (avant le point) viennent du premier parent
+            int offset = crossoverPoint & 63;
+            long headMask = (offset == 0) ? 0L : -1L << (64 - offset);
+            childGenome1[cutWord] = (genome1[cutWord] & headMask) | (genome2[cutWord] & ~headMask);
+            childGenome2[cutWord] = (genome2[cutWord] & headMask) | (genome1[cutWord] & ~headMask);
 
-            return new Individual[]{new Individual(childGenome1), new Individual(childGenome2)};
+            return new Individual[]{new Individual(net, childGenome1), new Individual(net, childGenome2)};
         } else {
             // Pas de croisement, les enfants sont des copies
-            return new Individual[]{new Individual(parent1.getGenome()), new Individual(parent2.getGenome())};
+            return new Individual[]{new Individual(parent1.net, parent1.genes.clone()),
+                    new Individual(parent2.net, parent2.genes.clone())};
         }
     }
 
     /**
      * Mutation par inversion de bit (Bit-Flip).
+     * Au lieu d'un tirage par bit, on saute directement au prochain bit muté :
+     * l'écart entre deux mutations suit une loi géométrique de paramètre MUTATION_RATE.
      */
     public void mutate() {
-        char[] genomeChars = this.genome.toCharArray();
-        for (int i = 0; i < genomeChars.length; i++) {
-            if (RANDOM.nextDouble() < MUTATION_RATE) {
-                // Inverser le bit: '0' devient '1' et '1' devient '0'
-                genomeChars[i] = (genomeChars[i] == '0' ? '1' : '0');
-            }
+        int length = net.getGenomeLength();
+        int position = -1;
+        while (true) {
+            double u = 1.0 - random().nextDouble(); // dans ]0, 1]
+            position += 1 + (int) (Math.log(u) / LOG_NO_MUTATION);
+            if (position >= length) break;
+            // Inverser le bit
+            genes[position >>> 6] ^= 1L << (63 - (position & 63));
+            dirty = true;
         }
-        this.genome = new String(genomeChars);
     }
 
     // --- Évaluation et Getters/Setters ---
 
     public void calculateFitness() {
-        this.fitness = NeuralNet.calculateFitness(this.genome);
+        calculateFitness(Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Évaluation interrompue (voir NeuralNet.calculateFitness(long[], double, boolean[])) : arrêtée
+     * sous cutoff avant la dernière ligne, elle donne à l'individu un fitness partiel.
+     */
+    public void calculateFitness(double cutoff) {
+        if (!dirty) return;
+        boolean[] interrupted = new boolean[1];
+        this.fitness = net.calculateFitness(this.genes, cutoff, interrupted);
+        this.partial = interrupted[0];
+        this.dirty = false;
+    }
+
+    /**
+     * Comme calculateFitness(), en réutilisant le fitness d'un génome identique déjà évalué.
+     */
+    public void calculateFitness(FitnessCache cache) {
+        calculateFitness(cache, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Évaluation interrompue avec cache : les fitness partiels ne sont pas mis en cache, et un
+     * fitness en cache sous cutoff est recalculé avec le seuil.
+     */
+    public void calculateFitness(FitnessCache cache, double cutoff) {
+        if (!dirty) return;
+        long key = contentHash();
+        Double cached = cache.get(key);
+        // Sous le seuil, le cache ne remplace pas l'évaluation bornée (même résultat avec ou sans cache)
+        if (cached != null && cached >= cutoff) {
+            this.fitness = cached;
+            this.partial = false;
+        } else {
+            boolean[] interrupted = new boolean[1];
+            this.fitness = net.calculateFitness(this.genes, cutoff, interrupted);
+            this.partial = interrupted[0];
+            if (!partial) cache.put(key, this.fitness);
+        }
+        this.dirty = false;
+    }
+
+    /**
+     * Hash 64 bits du génome (mélange SplitMix64 des mots), clé du cache de fitness.
+     */
+    public long contentHash() {
+        long h = 0;
+        for (long word : genes) {
+            h ^= word;
+            h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+            h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+            h ^= h >>> 31;
+        }
+        return h;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Vrai si le fitness vient d'une évaluation interrompue sous le seuil (majorant seulement).
+     */
+    public boolean isPartialFitness() {
+        return partial;
+    }
+
+    /**
+     * Génome compacté (lecture seule : ne pas modifier le tableau renvoyé).
+     */
+    public long[] getGenes() {
+        return genes;
     }
 
-    public String getGenome() {
-        return genome;
+    public NeuralNet getNet() {
+        return net;
+    }
+
+    /**
+     * Génome sous forme de chaîne de '0'/'1' (affichage).
+     */
+    public String toBitString() {
+        int length = net.getGenomeLength();
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((genes[i >>> 6] >>> (63 - (i & 63)) & 1L) == 0 ? '0' : '1');
+        }
+        return sb.toString();
     }
 
     public double getFitness() {
@@ -89,5 +220,7 @@ public class Individual {
 
     public void setFitness(double fitness) {
         this.fitness = fitness;
+        this.dirty = false;
+        this.partial = false;
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,19 @@
 package xor_ga_classic;
 
 import xor_common.CSVLogger; // CORRECTION : Import
+import xor_common.EvaluationTask;
+import xor_common.FitnessCache;
+import xor_common.MappedDataset;
+import xor_common.RandomStreams;
+import xor_common.SplitMixRandom;
+import xor_common.TruthTableTask;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator; // CORRECTION : Import
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Stream;
 
 public class Main {
@@ -16,20 +22,48 @@ public class Main {
     private static final int POPULATION_SIZE = 100;
     private static final int GENERATIONS = 500;
     private static final int ELITISM_COUNT = 1;
-    private static final Random RANDOM = new Random();
+    private static final long RANDOM_SEED = 0; // 0 = graine aléatoire (affichée) ; sinon exécution reproductible
+    private static final int FITNESS_CACHE_SIZE = 1024; // 0 = pas de cache
+    // Sélection des parents : RouletteSelection (O(log N)), AliasSelection (O(1)),
+    // StochasticUniversalSelection ou TournamentSelection(k)
+    private static final SelectionStrategy SELECTION = new AliasSelection();
+    // Évaluation interrompue : un individu qui ne peut plus atteindre le pire parent sélectionné à la
+    // génération précédente arrête de parcourir les lignes et reçoit un fitness partiel
+    private static final boolean EARLY_EXIT = false;
+    // Tâche : TASK ("xor", "parity" ou "multiplexer") de taille TASK_SIZE si DATASET_FILE est vide,
+    // sinon fichier float32 projeté en mémoire (voir MappedDataset)
+    private static final String TASK = "xor";
+    private static final int TASK_SIZE = 4; // Bits de parité / bits d'adresse du multiplexeur
+    private static final String DATASET_FILE = "";
+    private static final int DATASET_INPUTS = 2;
+    private static final int DATASET_OUTPUTS = 1;
+    private static final int HIDDEN_SIZE = 2;
+    // Succès : 3.99 sur 4.0 pour XOR, même proportion du score maximal pour les autres tâches
+    private static final double SUCCESS_RATIO = 3.99 / 4.0;
 
     private static final String CSV_OUTPUT_FILE = "ga_progression_log.csv";
 
     public static void main(String[] args) {
 
         System.out.println("--- Algorithme Génétique Classique pour XOR (Java) ---");
-        System.out.println("Taille du génome: " + NeuralNet.GENOME_LENGTH + " bits");
-        System.out.println("Population: " + POPULATION_SIZE + ", Générations: " + GENERATIONS + "\n");
+        NeuralNet net = new NeuralNet(createTask(), HIDDEN_SIZE);
+        EvaluationTask task = net.getTask();
+        System.out.printf("Tâche : %s (%d lignes, %d entrées, %d sorties)\n",
+                task.getName(), task.getRowCount(), task.getInputCount(), task.getOutputCount());
+        System.out.println("Taille du génome: " + net.getGenomeLength() + " bits");
+        System.out.println("Population: " + POPULATION_SIZE + ", Générations: " + GENERATIONS);
+
+        // Flux indépendants dérivés de la graine : variation (individus) et sélection
+        long seed = RandomStreams.resolveSeed(args, RANDOM_SEED);
+        System.out.println("Graine: " + seed + "\n");
+        SplitMixRandom root = RandomStreams.root(seed);
+        RandomStreams.set(root.split());
+        SplitMixRandom selectionRandom = root.split();
 
         // Initialisation du logger CSV
         CSVLogger logger = null;
         try {
-            logger = new CSVLogger(CSV_OUTPUT_FILE);
+            logger = new CSVLogger(CSV_OUTPUT_FILE, true); // Écriture asynchrone
         } catch (IOException e) {
             System.err.println("Erreur lors de l'initialisation du logger CSV : " + e.getMessage());
             return;
@@ -38,25 +72,47 @@ public class Main {
         // 1. Initialisation de la population
         List<Individual> population = new ArrayList<>();
         for (int i = 0; i < POPULATION_SIZE; i++) {
-            population.add(new Individual());
+            population.add(new Individual(net));
         }
 
+        FitnessCache fitnessCache = (FITNESS_CACHE_SIZE > 0) ? new FitnessCache(FITNESS_CACHE_SIZE) : null;
+
         Individual bestOverallIndividual = null;
         double maxFitnessOverall = -Double.MAX_VALUE;
+        double successFitness = SUCCESS_RATIO * net.getMaxFitness();
+        long evaluations = 0;
+        long partialEvaluations = 0;
+        double cutoff = Double.NEGATIVE_INFINITY; // Seuil de l'évaluation interrompue
+        long startNanos = System.nanoTime();
 
         // 2. Boucle des Générations
         for (int gen = 1; gen <= GENERATIONS; gen++) {
 
-            // ... (Code d'évaluation et de tri inchangé) ...
+            // Évaluation : l'élite et les individus non mutés gardent leur fitness,
+            // les doublons sont servis par le cache
+            int reused = 0;
+            if (fitnessCache != null) fitnessCache.resetStatistics();
             for (Individual ind : population) {
-                ind.calculateFitness();
+                if (!ind.isDirty()) {
+                    reused++;
+                } else {
+                    if (fitnessCache != null) {
+                        ind.calculateFitness(fitnessCache, cutoff);
+                    } else {
+                        ind.calculateFitness(cutoff);
+                    }
+                    if (ind.isPartialFitness()) partialEvaluations++;
+                }
             }
+            if (fitnessCache != null) reused += (int) fitnessCache.getHits();
+            evaluations += population.size() - reused;
+            double reuseRate = (double) reused / population.size();
             population.sort(Comparator.comparingDouble(Individual::getFitness).reversed());
 
             double currentMaxFitness = population.get(0).getFitness();
             if (currentMaxFitness > maxFitnessOverall) {
                 maxFitnessOverall = currentMaxFitness;
-                bestOverallIndividual = new Individual(population.get(0).getGenome());
+                bestOverallIndividual = new Individual(net, population.get(0).getGenes().clone());
                 bestOverallIndividual.setFitness(maxFitnessOverall);
             }
 
@@ -67,12 +123,14 @@ public class Main {
 
             // Affichage du progrès dans la console
             if (gen % 10 == 0 || gen == 1) { // Affiche moins souvent
-                System.out.printf("Génération %4d | Max Fitness: %.6f | Avg Fitness: %.6f\n",
-                        gen, currentMaxFitness, avgFitness);
+                System.out.printf("Génération %4d | Max Fitness: %.6f | Avg Fitness: %.6f | Fitness réutilisé: %3.0f%%\n",
+                        gen, currentMaxFitness, avgFitness, reuseRate * 100);
             }
 
-            if (maxFitnessOverall >= 3.99) {
-                System.out.println("\n✅ Succès: Solution XOR trouvée à la génération " + gen);
+            if (maxFitnessOverall >= successFitness) {
+                System.out.println("\n✅ Succès: Solution " + task.getName() + " trouvée à la génération " + gen);
+                System.out.printf("Temps jusqu'à la solution : %.2f s (%d évaluations)\n",
+                        (System.nanoTime() - startNanos) / 1e9, evaluations);
                 break;
             }
 
@@ -82,10 +140,14 @@ public class Main {
             for (int i = 0; i < ELITISM_COUNT; i++) {
                 nextPopulation.add(population.get(i));
             }
-            // Sélection, Croisement, Mutation
+            // Sélection, Croisement, Mutation (structures de sélection construites une fois par génération)
+            SELECTION.prepare(population);
+            double worstParent = Double.POSITIVE_INFINITY;
             while (nextPopulation.size() < POPULATION_SIZE) {
-                Individual parent1 = selectionRoulette(population);
-                Individual parent2 = selectionRoulette(population);
+                Individual parent1 = SELECTION.select(selectionRandom);
+                Individual parent2 = SELECTION.select(selectionRandom);
+                if (!parent1.isPartialFitness()) worstParent = Math.min(worstParent, parent1.getFitness());
+                if (!parent2.isPartialFitness()) worstParent = Math.min(worstParent, parent2.getFitness());
                 Individual[] children = Individual.crossover(parent1, parent2);
 
                 children[0].mutate();
@@ -98,9 +160,15 @@ public class Main {
             }
 
             population = nextPopulation;
+            // Pire individu ayant survécu à la sélection : seuil de la génération suivante
+            if (EARLY_EXIT && worstParent != Double.POSITIVE_INFINITY) cutoff = worstParent;
         }
 
         logger.close(); // Fermeture du fichier CSV
+        if (EARLY_EXIT) {
+            System.out.printf("Évaluations interrompues : %d sur %d\n", partialEvaluations, evaluations);
+        }
+        RandomStreams.set(null);
 
         // --- Affichage des Résultats Finaux ---
         if (bestOverallIndividual != null) {
@@ -109,40 +177,40 @@ public class Main {
         }
     }
 
-    // ... (Fonction selectionRoulette inchangée) ...
-    private static Individual selectionRoulette(List<Individual> population) {
-        double totalFitness = population.stream().mapToDouble(Individual::getFitness).sum();
-        // ... (Logique de sélection) ...
-        if (totalFitness <= 1e-9) {
-            return population.get(RANDOM.nextInt(population.size()));
-        }
-        double slice = RANDOM.nextDouble() * totalFitness;
-        double cumulativeFitness = 0.0;
-        for (Individual ind : population) {
-            cumulativeFitness += ind.getFitness();
-            if (cumulativeFitness >= slice) {
-                return ind;
-            }
+    private static EvaluationTask createTask() {
+        if (DATASET_FILE.isEmpty()) return EvaluationTask.named(TASK, TASK_SIZE);
+        try {
+            return new MappedDataset(Paths.get(DATASET_FILE), DATASET_INPUTS, DATASET_OUTPUTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Jeu de données illisible : " + DATASET_FILE, e);
         }
-        return population.get(RANDOM.nextInt(population.size()));
     }
 
-    // ... (Fonction displayFinalResults inchangée) ...
     private static void displayFinalResults(Individual best) {
-        double[] bestParams = NeuralNet.decodeBitString(best.getGenome());
+        NeuralNet net = best.getNet();
+        EvaluationTask task = net.getTask();
+        double[] bestParams = net.decode(best.getGenes());
 
         System.out.println("\n--- Résultat Final (Meilleur Individu) ---");
         System.out.printf("Meilleure Fitness: %.6f\n", best.getFitness());
         System.out.println("Prédictions du Réseau (doivent être proches de 0 ou 1):");
 
-        for (int i = 0; i < NeuralNet.XOR_DATA.length; i++) {
-            double prediction = NeuralNet.predict(bestParams, NeuralNet.XOR_DATA[i]);
-            double x1 = NeuralNet.XOR_DATA[i][0];
-            double x2 = NeuralNet.XOR_DATA[i][1];
-            double target = NeuralNet.XOR_TARGET[i];
-
-            System.out.printf("  Entrée: (%.0f, %.0f) | Cible: %.0f | Sortie Prédite: %.4f\n",
-                    x1, x2, target, prediction);
+        // Premières lignes de la tâche (toutes pour XOR)
+        int rows = (int) Math.min(task.getRowCount(), 16);
+        double[][] inputs = new double[task.getInputCount()][rows];
+        double[][] targets = new double[task.getOutputCount()][rows];
+        double[][] predictions = new double[task.getOutputCount()][rows];
+        task.readRows(0, rows, inputs, targets);
+        net.predictBatch(bestParams, inputs, 0, rows, predictions);
+
+        for (int r = 0; r < rows; r++) {
+            System.out.printf("  Entrée: (%s) | Cible: %s | Sortie Prédite: %s\n", EvaluationTask.formatRow(inputs, r),
+                    EvaluationTask.formatRow(targets, r), EvaluationTask.formatOutputs(predictions, r));
+        }
+        if (task instanceof TruthTableTask) {
+            long errors = ((TruthTableTask) task).misclassifiedRows(
+                    (batch, offset, count, outputs) -> net.predictBatch(bestParams, batch, offset, count, outputs));
+            System.out.printf("Lignes mal classées : %d / %d\n", errors, task.getRowCount());
         }
     }
 
@@ -1,28 +1,74 @@
 package xor_ga_classic;
 
+import xor_common.ArrayTask;
+import xor_common.BatchModel;
+import xor_common.ColumnBatch;
+import xor_common.EvaluationTask;
+
 import java.util.Arrays;
 
+/**
+ * Réseau à une couche cachée dont les poids et biais sont codés dans le génome binaire.
+ * Les tailles d'entrée et de sortie sont celles de la tâche évaluée (2-2-1 pour XOR).
+ */
 public class NeuralNet {
 
-    // --- 1. Constantes d'Architecture et d'Encodage ---
-    public static final int INPUT_SIZE = 2;
-    public static final int HIDDEN_SIZE = 2;
-    public static final int OUTPUT_SIZE = 1;
-
-    // Nombre total de paramètres: (2*2 + 2) + (2*1 + 1) = 9
-    public static final int TOTAL_PARAMS =
-            (INPUT_SIZE * HIDDEN_SIZE) + HIDDEN_SIZE + (HIDDEN_SIZE * OUTPUT_SIZE) + OUTPUT_SIZE;
-
+    // --- 1. Constantes d'Encodage ---
     public static final int BITS_PER_PARAM = 16;
-    public static final int GENOME_LENGTH = TOTAL_PARAMS * BITS_PER_PARAM;
     public static final double MAX_MAGNITUDE = 10.0;
     public static final int MAX_INT_VALUE = (1 << 15) - 1; // 2^15 - 1
 
-    // Jeu de données XOR
-    public static final double[][] XOR_DATA = {
-            {0, 0}, {0, 1}, {1, 0}, {1, 1}
-    };
-    public static final double[] XOR_TARGET = {0, 1, 1, 0};
+    // --- Architecture ---
+    private final EvaluationTask task;
+    private final int inputSize;
+    private final int hiddenSize;
+    private final int outputSize;
+
+    // Nombre total de paramètres: (entrées*cachés + cachés) + (cachés*sorties + sorties), 9 pour XOR
+    private final int totalParams;
+    private final int genomeLength;
+
+    // Début de chaque bloc dans le tableau plat des paramètres
+    private static final int W1_START = 0;
+    private final int b1Start; // W1_START + inputSize * hiddenSize
+    private final int w2Start; // b1Start + hiddenSize
+    private final int b2Start; // w2Start + hiddenSize * outputSize
+
+    // Modèle par thread : paramètres décodés (tampon réutilisé, l'évaluation n'alloue rien)
+    // et tampons de predictBatch()
+    private final ThreadLocal<DecodedModel> models;
+
+    public NeuralNet(EvaluationTask task, int hiddenSize) {
+        this.task = task;
+        this.inputSize = task.getInputCount();
+        this.hiddenSize = hiddenSize;
+        this.outputSize = task.getOutputCount();
+        this.totalParams = (inputSize * hiddenSize) + hiddenSize + (hiddenSize * outputSize) + outputSize;
+        this.genomeLength = totalParams * BITS_PER_PARAM;
+        this.b1Start = W1_START + inputSize * hiddenSize;
+        this.w2Start = b1Start + hiddenSize;
+        this.b2Start = w2Start + hiddenSize * outputSize;
+        this.models = ThreadLocal.withInitial(DecodedModel::new);
+    }
+
+    /**
+     * Le réseau 2-2-1 du problème XOR.
+     */
+    public static NeuralNet xor() {
+        return new NeuralNet(ArrayTask.xor(), 2);
+    }
+
+    public EvaluationTask getTask() {
+        return task;
+    }
+
+    public int getTotalParams() {
+        return totalParams;
+    }
+
+    public int getGenomeLength() {
+        return genomeLength;
+    }
 
     // --- 2. Fonctions Mathématiques ---
 
@@ -39,109 +85,231 @@ public class NeuralNet {
     // --- 3. Décodage Binaire vers Réel ---
 
     /**
-     * Décode la chaîne de bits en 9 paramètres réels (poids et biais).
+     * Décode la chaîne de bits en paramètres réels (poids et biais).
      */
-    public static double[] decodeBitString(String bitString) {
-        if (bitString.length() != GENOME_LENGTH) {
+    public double[] decodeBitString(String bitString) {
+        if (bitString.length() != genomeLength) {
             throw new IllegalArgumentException("Longueur du génome invalide.");
         }
 
-        double[] realParams = new double[TOTAL_PARAMS];
+        double[] realParams = new double[totalParams];
 
-        for (int i = 0; i < TOTAL_PARAMS; i++) {
+        for (int i = 0; i < totalParams; i++) {
             int start = i * BITS_PER_PARAM;
-            int end = start + BITS_PER_PARAM;
-            String segment = bitString.substring(start, end);
 
-            // 1. Décodage du signe
-            int sign = segment.charAt(0) == '1' ? -1 : 1;
+            // Lecture directe des caractères (sans substring ni parseInt)
+            int segment = 0;
+            for (int b = start; b < start + BITS_PER_PARAM; b++) {
+                char c = bitString.charAt(b);
+                if (c != '0' && c != '1') {
+                    throw new IllegalArgumentException("Caractère invalide dans le génome : " + c);
+                }
+                segment = (segment << 1) | (c - '0');
+            }
+            realParams[i] = decodeSegment(segment);
+        }
+        return realParams;
+    }
 
-            // 2. Décodage de la magnitude (bits 1 à 15)
-            String magnitudeBits = segment.substring(1);
-            int magnitudeInt = Integer.parseInt(magnitudeBits, 2);
+    /**
+     * Décode le génome compacté (voir Individual) en paramètres réels.
+     * Même codage que decodeBitString : 1 bit de signe puis 15 bits de magnitude.
+     */
+    public double[] decode(long[] genes) {
+        double[] realParams = new double[totalParams];
+        decodeInto(genes, realParams);
+        return realParams;
+    }
+
+    /**
+     * Décode le génome compacté dans un tampon fourni (aucune allocation).
+     */
+    public void decodeInto(long[] genes, double[] realParams) {
+        for (int i = 0; i < totalParams; i++) {
+            realParams[i] = decodeSegment(readBits(genes, i * BITS_PER_PARAM, BITS_PER_PARAM));
+        }
+    }
 
-            // 3. Mise à l'échelle (Mapping vers [-MAX_MAGNITUDE, MAX_MAGNITUDE])
-            double normalizedValue = (double) magnitudeInt / MAX_INT_VALUE;
-            double realValue = sign * (normalizedValue * MAX_MAGNITUDE);
+    private static double decodeSegment(int segment) {
+        // 1. Décodage du signe (premier bit du segment)
+        int sign = ((segment >>> (BITS_PER_PARAM - 1)) & 1) == 1 ? -1 : 1;
 
-            realParams[i] = realValue;
+        // 2. Décodage de la magnitude (bits suivants)
+        int magnitudeInt = segment & ((1 << (BITS_PER_PARAM - 1)) - 1);
+
+        // 3. Mise à l'échelle (Mapping vers [-MAX_MAGNITUDE, MAX_MAGNITUDE])
+        double normalizedValue = (double) magnitudeInt / MAX_INT_VALUE;
+        return sign * (normalizedValue * MAX_MAGNITUDE);
+    }
+
+    /**
+     * Lit 'length' bits (<= 32) à partir du bit 'start', le premier bit lu étant le poids fort.
+     */
+    static int readBits(long[] genes, int start, int length) {
+        int word = start >>> 6;
+        int offset = start & 63;
+        long bits = genes[word] << offset;
+        if (offset + length > 64) {
+            bits |= genes[word + 1] >>> (64 - offset);
         }
-        return realParams;
+        return (int) (bits >>> (64 - length));
     }
 
     // --- 4. Propagation Avant (Feedforward) ---
 
     /**
-     * Effectue la propagation avant pour une entrée donnée.
-     * @param realParams Les 9 poids et biais décodés.
-     * @param input L'entrée XOR (e.g., {0, 1}).
+     * Effectue la propagation avant pour une entrée donnée et renvoie la première sortie.
+     * Lit directement le tableau plat des paramètres (pas de copies) ; chaque neurone
+     * caché est accumulé dans la sortie dès qu'il est calculé.
+     * @param realParams Les poids et biais décodés.
+     * @param input L'entrée (e.g., {0, 1} pour XOR).
      * @return La sortie prédite du réseau (un double).
      */
-    public static double predict(double[] realParams, double[] input) {
-        if (realParams.length != TOTAL_PARAMS) {
+    public double predict(double[] realParams, double[] input) {
+        if (realParams.length != totalParams) {
             throw new IllegalArgumentException("Nombre de paramètres invalide.");
         }
 
-        // Indices de début pour le slicing des 9 paramètres
-        int w1End = INPUT_SIZE * HIDDEN_SIZE; // 4
-        int b1End = w1End + HIDDEN_SIZE; // 6
-        int w2End = b1End + HIDDEN_SIZE * OUTPUT_SIZE; // 8
-        // b2End est 9 (TOTAL_PARAMS)
-
-        // Paramètres
-        double[] W1 = Arrays.copyOfRange(realParams, 0, w1End);
-        double[] B1 = Arrays.copyOfRange(realParams, w1End, b1End);
-        double[] W2 = Arrays.copyOfRange(realParams, b1End, w2End);
-        double B2 = realParams[w2End];
-
-        double[] hiddenOutput = new double[HIDDEN_SIZE];
-
-        // 1. Couche Cachée (2 neurones)
-        for (int j = 0; j < HIDDEN_SIZE; j++) {
+        double outputSum = 0.0;
+        for (int j = 0; j < hiddenSize; j++) {
+            // 1. Neurone caché j : W1 est stocké linéairement, W1[i*hiddenSize + j]
             double sum = 0.0;
-            // W1 est stocké linéairement: W1[i*HIDDEN_SIZE + j]
-            for (int i = 0; i < INPUT_SIZE; i++) {
-                sum += input[i] * W1[i * HIDDEN_SIZE + j];
+            for (int i = 0; i < inputSize; i++) {
+                sum += input[i] * realParams[W1_START + i * hiddenSize + j];
             }
-            sum += B1[j]; // Ajout du biais
-            hiddenOutput[j] = sigmoid(sum);
-        }
+            sum += realParams[b1Start + j]; // Ajout du biais
+            double hiddenOutput = sigmoid(sum);
 
-        // 2. Couche de Sortie (1 neurone)
-        double outputSum = 0.0;
-        for (int j = 0; j < HIDDEN_SIZE; j++) {
-            // W2 est stocké linéairement: W2[j * OUTPUT_SIZE]
-            outputSum += hiddenOutput[j] * W2[j * OUTPUT_SIZE];
+            // 2. Contribution à la sortie : W2[j * outputSize]
+            outputSum += hiddenOutput * realParams[w2Start + j * outputSize];
         }
-        outputSum += B2; // Ajout du biais
+        outputSum += realParams[b2Start]; // Ajout du biais
 
         return sigmoid(outputSum);
     }
 
+    /**
+     * Propagation avant sur rows lignes à la fois : inputs[i][offset + r] est l'entrée i de la
+     * ligne r (disposition par colonnes, voir ColumnBatch) ; la sortie o de la ligne r est écrite
+     * dans outputs[o][r]. Chaque neurone est calculé pour tout un bloc de lignes (boucles vectorisées
+     * par le JIT), avec les mêmes opérations, dans le même ordre, que predict() : mêmes résultats.
+     */
+    public void predictBatch(double[] realParams, double[][] inputs, int offset, int rows, double[][] outputs) {
+        if (realParams.length != totalParams) {
+            throw new IllegalArgumentException("Nombre de paramètres invalide.");
+        }
+        DecodedModel model = models.get();
+        double[] hidden = model.hidden;
+        double[][] outputSums = model.outputSums;
+
+        for (int start = 0; start < rows; start += ColumnBatch.BLOCK_ROWS) {
+            int n = Math.min(ColumnBatch.BLOCK_ROWS, rows - start);
+            for (double[] outputSum : outputSums) Arrays.fill(outputSum, 0, n, 0.0);
+            for (int j = 0; j < hiddenSize; j++) {
+                // 1. Neurone caché j pour tout le bloc
+                Arrays.fill(hidden, 0, n, 0.0);
+                for (int i = 0; i < inputSize; i++) {
+                    double[] in = inputs[i];
+                    double weight = realParams[W1_START + i * hiddenSize + j];
+                    for (int r = 0; r < n; r++) {
+                        hidden[r] += in[offset + start + r] * weight;
+                    }
+                }
+                double bias = realParams[b1Start + j];
+                for (int r = 0; r < n; r++) {
+                    hidden[r] = sigmoid(hidden[r] + bias);
+                }
+                // 2. Contribution à chaque sortie
+                for (int o = 0; o < outputSize; o++) {
+                    double[] outputSum = outputSums[o];
+                    double weight = realParams[w2Start + j * outputSize + o];
+                    for (int r = 0; r < n; r++) {
+                        outputSum[r] += hidden[r] * weight;
+                    }
+                }
+            }
+            for (int o = 0; o < outputSize; o++) {
+                double[] outputSum = outputSums[o];
+                double[] output = outputs[o];
+                double bias = realParams[b2Start + o];
+                for (int r = 0; r < n; r++) {
+                    output[start + r] = sigmoid(outputSum[r] + bias);
+                }
+            }
+        }
+    }
+
     // --- 5. Fonction d'Évaluation (Fitness) ---
 
     /**
      * Calcule la fitness à maximiser pour un génome donné.
      */
-    public static double calculateFitness(String bitString) {
+    public double calculateFitness(String bitString) {
         try {
-            double[] realParams = decodeBitString(bitString);
-            double sse = 0.0; // Sum of Squared Errors
+            return fitnessOf(decodeBitString(bitString));
+        } catch (IllegalArgumentException e) {
+            return 0.0;
+        }
+    }
 
-            for (int i = 0; i < XOR_DATA.length; i++) {
-                double prediction = predict(realParams, XOR_DATA[i]);
-                double error = XOR_TARGET[i] - prediction;
-                sse += error * error;
-            }
+    /**
+     * Calcule la fitness d'un génome compacté (voir Individual).
+     * Chemin sans allocation : décodage dans le tampon du thread puis propagation.
+     */
+    public double calculateFitness(long[] genes) {
+        return calculateFitness(genes, Double.NEGATIVE_INFINITY, null);
+    }
 
+    /**
+     * Évaluation interrompue : les lignes cessent de défiler dès que l'erreur cumulée rend
+     * cutoff inatteignable. S'il restait des lignes, interrupted[0] passe à true (si interrupted
+     * n'est pas null) et le résultat, inférieur à cutoff, n'est qu'un majorant du fitness
+     * (fitness partiel) ; sinon c'est le fitness exact, même sous cutoff.
+     */
+    public double calculateFitness(long[] genes, double cutoff, boolean[] interrupted) {
+        DecodedModel model = models.get();
+        decodeInto(genes, model.params);
+        // max - erreur >= cutoff  <=>  erreur <= max - cutoff
+        double errorBound = (cutoff > 0) ? task.getMaxScore() - cutoff : Double.POSITIVE_INFINITY;
+        double sse = task.sumSquaredError(model, errorBound, model.rowsRead);
+        double fitness = fitnessFrom(sse);
+        if (model.rowsRead[0] == task.getRowCount()) return fitness;
+        if (interrupted != null) interrupted[0] = true;
+        // Arrondis : une évaluation interrompue reste toujours signalée sous le seuil
+        return Math.min(fitness, Math.nextDown(cutoff));
+    }
 
-            double fitness = 4.0 - sse;
+    private double fitnessOf(double[] realParams) {
+        DecodedModel model = models.get();
+        System.arraycopy(realParams, 0, model.params, 0, totalParams);
+        return fitnessFrom(task.sumSquaredError(model));
+    }
 
+    // Fitness max = une unité par sortie et par ligne (4.0 pour XOR)
+    private double fitnessFrom(double sse) { // sse : Sum of Squared Errors
+        double fitness = task.getMaxScore() - sse;
 
-            return Math.max(0.0, fitness);
 
-        } catch (IllegalArgumentException e) {
-            return 0.0;
+        return Math.max(0.0, fitness);
+    }
+
+    /**
+     * Fitness maximale atteignable sur la tâche (erreur nulle).
+     */
+    public double getMaxFitness() {
+        return task.getMaxScore();
+    }
+
+    // Paramètres décodés d'un thread, vus comme un modèle évaluable par la tâche
+    private final class DecodedModel implements BatchModel {
+        final double[] params = new double[totalParams];
+        final double[] hidden = new double[ColumnBatch.BLOCK_ROWS];
+        final double[][] outputSums = new double[outputSize][ColumnBatch.BLOCK_ROWS];
+        final long[] rowsRead = new long[1];
+
+        @Override
+        public void predict(double[][] inputs, int offset, int rows, double[][] outputs) {
+            predictBatch(params, inputs, offset, rows, outputs);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package xor_ga_classic;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sélection proportionnelle au fitness (roulette).
+ * Les sommes cumulées sont construites une fois par génération : chaque tirage
+ * est une recherche dichotomique en O(log N) au lieu d'un parcours linéaire.
+ */
+public class RouletteSelection implements SelectionStrategy {
+
+    protected List<Individual> population;
+    protected double[] cumulativeFitness = new double[0];
+    protected double totalFitness;
+
+    @Override
+    public void prepare(List<Individual> population) {
+        this.population = population;
+        int size = population.size();
+        if (cumulativeFitness.length != size) cumulativeFitness = new double[size];
+
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            sum += population.get(i).getFitness();
+            cumulativeFitness[i] = sum;
+        }
+        totalFitness = sum;
+    }
+
+    @Override
+    public Individual select(RandomGenerator random) {
+        if (totalFitness <= 1e-9) {
+            return population.get(random.nextInt(population.size()));
+        }
+        double slice = random.nextDouble() * totalFitness;
+        int index = firstIndexAtLeast(slice);
+        if (index < population.size()) {
+            return population.get(index);
+        }
+        return population.get(random.nextInt(population.size()));
+    }
+
+    // Premier index dont la somme cumulée atteint 'value'
+    protected int firstIndexAtLeast(double value) {
+        int low = 0, high = population.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeFitness[mid] >= value) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+}
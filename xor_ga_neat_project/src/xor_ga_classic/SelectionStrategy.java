@@ -0,0 +1,16 @@
+package xor_ga_classic;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Stratégie de sélection des parents.
+ * prepare() est appelé une fois par génération (construction des structures
+ * d'échantillonnage), puis select() autant de fois que nécessaire.
+ */
+public interface SelectionStrategy {
+
+    void prepare(List<Individual> population);
+
+    Individual select(RandomGenerator random);
+}
@@ -0,0 +1,52 @@
+package xor_ga_classic;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Échantillonnage universel stochastique (SUS, Baker).
+ * N pointeurs régulièrement espacés sur la roulette, avec un seul tirage aléatoire :
+ * un balayage en O(N) donne toute une génération de parents, avec une variance
+ * minimale par rapport aux proportions attendues.
+ */
+public class StochasticUniversalSelection extends RouletteSelection {
+
+    private int[] picks = new int[0];
+    private int cursor = 0;
+
+    @Override
+    public void prepare(List<Individual> population) {
+        super.prepare(population);
+        if (picks.length != population.size()) picks = new int[population.size()];
+        cursor = picks.length; // Nouveau balayage au premier tirage
+    }
+
+    @Override
+    public Individual select(RandomGenerator random) {
+        if (totalFitness <= 1e-9) {
+            return population.get(random.nextInt(population.size()));
+        }
+        if (cursor == picks.length) sweep(random);
+        return population.get(picks[cursor++]);
+    }
+
+    private void sweep(RandomGenerator random) {
+        int size = population.size();
+        double step = totalFitness / size;
+        double pointer = random.nextDouble() * step;
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            while (index < size - 1 && cumulativeFitness[index] < pointer) index++;
+            picks[i] = index;
+            pointer += step;
+        }
+        // Mélange (Fisher-Yates) : les parents consécutifs ne sont pas voisins sur la roulette
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = picks[i];
+            picks[i] = picks[j];
+            picks[j] = tmp;
+        }
+        cursor = 0;
+    }
+}
@@ -0,0 +1,33 @@
+package xor_ga_classic;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sélection par tournoi : le meilleur de 'size' individus tirés au hasard.
+ * Aucun prétraitement, O(size) par tirage.
+ */
+public class TournamentSelection implements SelectionStrategy {
+
+    private final int size;
+    private List<Individual> population;
+
+    public TournamentSelection(int size) {
+        this.size = Math.max(1, size);
+    }
+
+    @Override
+    public void prepare(List<Individual> population) {
+        this.population = population;
+    }
+
+    @Override
+    public Individual select(RandomGenerator random) {
+        Individual best = population.get(random.nextInt(population.size()));
+        for (int i = 1; i < size; i++) {
+            Individual challenger = population.get(random.nextInt(population.size()));
+            if (challenger.getFitness() > best.getFitness()) best = challenger;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,18 @@
+package xor_neat;
+
+/**
+ * Fonction de fitness à seuil (évaluation interrompue) : quand le fitness est une somme d'erreurs
+ * par ligne, l'évaluation peut s'arrêter dès que l'erreur cumulée montre que le génome
+ * n'atteindra pas cutoff.
+ *
+ * Contrat : si l'évaluation a été interrompue (des lignes n'ont pas été lues), la fonction met
+ * interrupted[0] à true (l'appelant l'initialise à false) et renvoie un majorant du fitness,
+ * inférieur à cutoff (fitness partiel, voir NeatGenome.setPartialFitness). Sinon le résultat est
+ * le fitness exact, même s'il est sous cutoff.
+ * cutoff = Double.NEGATIVE_INFINITY : évaluation complète, fitness exact.
+ */
+@FunctionalInterface
+public interface BoundedFitnessFunction {
+
+    double applyAsDouble(NeatGenome genome, double cutoff, boolean[] interrupted);
+}
@@ -0,0 +1,110 @@
+package xor_neat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocole binaire entre le coordinateur (RemoteEvaluator) et les workers (EvaluationWorker).
+ *
+ * Trame : [int longueur du reste][octet type][long numéro de lot][charge utile]
+ * - EVALUATE (coordinateur -> worker) : varint nombre de génomes, puis les génomes (GenomeCodec) ;
+ * - RESULT (worker -> coordinateur) : varint nombre de valeurs, puis les fitness (doubles bruts),
+ *   dans l'ordre des génomes du lot.
+ * Plusieurs trames peuvent être en vol sur une connexion : le numéro de lot les associe.
+ */
+final class EvaluationProtocol {
+
+    static final byte EVALUATE = 1;
+    static final byte RESULT = 2;
+
+    // Protection contre une longueur corrompue
+    static final int MAX_FRAME_BYTES = 64 << 20;
+
+    private static final int HEADER_BYTES = 1 + 8;
+
+    private EvaluationProtocol() { }
+
+    static final class Frame {
+        final byte type;
+        final long batchId;
+        final ByteBuffer payload;
+
+        Frame(byte type, long batchId, ByteBuffer payload) {
+            this.type = type;
+            this.batchId = batchId;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Écrit une trame complète (l'appelant sérialise les écritures sur un même flux).
+     */
+    static void writeFrame(DataOutputStream out, byte type, long batchId, ByteBuffer payload) throws IOException {
+        out.writeInt(HEADER_BYTES + payload.remaining());
+        out.writeByte(type);
+        out.writeLong(batchId);
+        out.write(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        out.flush();
+    }
+
+    /**
+     * Lit la trame suivante, ou null si le flux est fermé proprement entre deux trames.
+     */
+    static Frame readFrame(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < HEADER_BYTES || length > MAX_FRAME_BYTES) {
+            throw new IOException("Longueur de trame invalide : " + length);
+        }
+        byte type = in.readByte();
+        long batchId = in.readLong();
+        byte[] payload = new byte[length - HEADER_BYTES];
+        in.readFully(payload);
+        return new Frame(type, batchId, ByteBuffer.wrap(payload));
+    }
+
+    static ByteBuffer encodeBatch(List<NeatGenome> genomes) {
+        int size = 5;
+        for (NeatGenome genome : genomes) size += GenomeCodec.maxEncodedSize(genome);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        GenomeCodec.putVarint(buffer, genomes.size());
+        for (NeatGenome genome : genomes) GenomeCodec.write(buffer, genome);
+        return buffer.flip();
+    }
+
+    static List<NeatGenome> decodeBatch(ByteBuffer payload) {
+        int count = GenomeCodec.getVarint(payload);
+        if (count < 0 || count > payload.remaining()) {
+            throw new IllegalArgumentException("Nombre de génomes invalide : " + count);
+        }
+        List<NeatGenome> genomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) genomes.add(GenomeCodec.read(payload));
+        return genomes;
+    }
+
+    static ByteBuffer encodeResults(double[] fitness) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + 8 * fitness.length);
+        GenomeCodec.putVarint(buffer, fitness.length);
+        for (double value : fitness) buffer.putDouble(value);
+        return buffer.flip();
+    }
+
+    static double[] decodeResults(ByteBuffer payload) {
+        int count = GenomeCodec.getVarint(payload);
+        if (count < 0 || (long) count * 8 != payload.remaining()) {
+            throw new IllegalArgumentException("Nombre de résultats invalide : " + count);
+        }
+        double[] fitness = new double[count];
+        for (int i = 0; i < count; i++) fitness[i] = payload.getDouble();
+        return fitness;
+    }
+}
@@ -0,0 +1,76 @@
+package xor_neat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Worker d'évaluation distribuée : se connecte au coordinateur (RemoteEvaluator), reçoit des lots
+ * de génomes, les évalue (en parallèle sur ses cœurs) et renvoie les fitness, lot par lot.
+ * Les lots suivants attendent dans le tampon TCP pendant l'évaluation : pas d'aller-retour à vide.
+ *
+ * java -cp ... xor_neat.EvaluationWorker <hôte> <port> [threads]
+ */
+public class EvaluationWorker {
+
+    private final ToDoubleFunction<NeatGenome> fitnessFunction;
+    private final int threads;
+
+    public EvaluationWorker(ToDoubleFunction<NeatGenome> fitnessFunction, int threads) {
+        this.fitnessFunction = fitnessFunction;
+        this.threads = threads;
+    }
+
+    /**
+     * Sert le coordinateur jusqu'à la fermeture de la connexion.
+     */
+    public void serve(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             PopulationEvaluator evaluator = new PopulationEvaluator(threads)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            EvaluationProtocol.Frame frame;
+            while ((frame = EvaluationProtocol.readFrame(in)) != null) {
+                if (frame.type != EvaluationProtocol.EVALUATE) {
+                    throw new IOException("Trame inattendue : " + frame.type);
+                }
+                List<NeatGenome> genomes = EvaluationProtocol.decodeBatch(frame.payload);
+                evaluator.evaluate(genomes, fitnessFunction);
+
+                double[] fitness = new double[genomes.size()];
+                for (int i = 0; i < fitness.length; i++) fitness[i] = genomes.get(i).getFitness();
+                EvaluationProtocol.writeFrame(out, EvaluationProtocol.RESULT, frame.batchId,
+                        EvaluationProtocol.encodeResults(fitness));
+            }
+        }
+    }
+
+    /**
+     * Lance un worker dans un nouveau processus de la même JVM (même classpath), connecté à host:port.
+     */
+    public static Process spawnLocal(String host, int port, int threads) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                EvaluationWorker.class.getName(), host, Integer.toString(port), Integer.toString(threads))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = (args.length > 0) ? args[0] : "127.0.0.1";
+        int port = Integer.parseInt(args[1]);
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Worker d'évaluation XOR : connexion à " + host + ":" + port);
+        new EvaluationWorker(NeatXorSolver::calculateFitness, threads).serve(host, port);
+    }
+}
@@ -0,0 +1,79 @@
+package xor_neat;
+
+/**
+ * Bilan d'une génération évaluée par un NeatEngine (valeurs figées au moment de l'évaluation).
+ * En mode stationnaire, une "génération" correspond à POPULATION_SIZE remplacements.
+ */
+public final class GenerationStats {
+
+    private final int generation;
+    private final double maxFitness;
+    private final double averageFitness;
+    private final int speciesCount;
+    private final NeatGenome best;
+    private final double reuseRate;
+    private final int innovationEntries;
+    private final long innovationHeapBytes;
+    private final long evaluations;
+    private final double evaluationsPerSecond;
+
+    GenerationStats(int generation, double maxFitness, double averageFitness, int speciesCount,
+                    NeatGenome best, double reuseRate, int innovationEntries, long innovationHeapBytes,
+                    long evaluations, double evaluationsPerSecond) {
+        this.generation = generation;
+        this.maxFitness = maxFitness;
+        this.averageFitness = averageFitness;
+        this.speciesCount = speciesCount;
+        this.best = best;
+        this.reuseRate = reuseRate;
+        this.innovationEntries = innovationEntries;
+        this.innovationHeapBytes = innovationHeapBytes;
+        this.evaluations = evaluations;
+        this.evaluationsPerSecond = evaluationsPerSecond;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public double getMaxFitness() {
+        return maxFitness;
+    }
+
+    public double getAverageFitness() {
+        return averageFitness;
+    }
+
+    // Nombre d'espèces issu de la spéciation précédente (celle qui a produit cette génération)
+    public int getSpeciesCount() {
+        return speciesCount;
+    }
+
+    // Meilleur génome de la génération (ne pas modifier)
+    public NeatGenome getBest() {
+        return best;
+    }
+
+    // Part des fitness réutilisés (génomes inchangés + cache), entre 0 et 1
+    public double getReuseRate() {
+        return reuseRate;
+    }
+
+    public int getInnovationEntries() {
+        return innovationEntries;
+    }
+
+    public long getInnovationHeapBytes() {
+        return innovationHeapBytes;
+    }
+
+    // Nombre total de fitness calculés depuis le début de l'exécution (réutilisations exclues)
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    // Débit depuis le bilan précédent (temps réel, reproduction comprise)
+    public double getEvaluationsPerSecond() {
+        return evaluationsPerSecond;
+    }
+}
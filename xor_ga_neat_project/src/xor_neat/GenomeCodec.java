@@ -0,0 +1,161 @@
+package xor_neat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * Format binaire compact d'un NeatGenome :
+ *   varint nodeCount, puis par nœud : varint id, octet type, double biais ;
+ *   varint connectionCount, puis par connexion : varint écart d'innovation (les innovations
+ *   sont triées : on code la différence avec la précédente), varint in, varint out, double poids ;
+ *   enfin l'état "enabled" des connexions, un bit par connexion.
+ * Les doubles sont écrits tels quels (8 octets) : le décodage est exact.
+ * write() ne transmet pas le fitness : un génome décodé par read() est à évaluer.
+ * writeState() y ajoute l'état d'évaluation (points de sauvegarde) :
+ *   double fitness, double fitness ajusté, octet "à réévaluer".
+ */
+final class GenomeCodec {
+
+    private static final NodeGene.NodeType[] NODE_TYPES = NodeGene.NodeType.values();
+
+    private GenomeCodec() { }
+
+    /**
+     * Taille maximale de l'encodage (pour dimensionner le tampon).
+     */
+    static int maxEncodedSize(NeatGenome genome) {
+        return 5 + genome.getNodeCount() * (5 + 1 + 8)
+                + 5 + genome.getConnectionCount() * (5 + 5 + 5 + 8)
+                + (genome.getConnectionCount() + 7) / 8;
+    }
+
+    static void write(ByteBuffer buffer, NeatGenome genome) {
+        int nodeCount = genome.getNodeCount();
+        putVarint(buffer, nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            putVarint(buffer, genome.getNodeId(i));
+            buffer.put((byte) genome.getNodeType(i).ordinal());
+            buffer.putDouble(genome.getNodeBias(i));
+        }
+
+        int connectionCount = genome.getConnectionCount();
+        putVarint(buffer, connectionCount);
+        int previous = 0;
+        for (int c = 0; c < connectionCount; c++) {
+            int innovation = genome.getInnovation(c);
+            putVarint(buffer, innovation - previous);
+            previous = innovation;
+            putVarint(buffer, genome.getInNode(c));
+            putVarint(buffer, genome.getOutNode(c));
+            buffer.putDouble(genome.getWeight(c));
+        }
+
+        int bits = 0;
+        for (int c = 0; c < connectionCount; c++) {
+            if (genome.isEnabled(c)) bits |= 1 << (c & 7);
+            if ((c & 7) == 7 || c == connectionCount - 1) {
+                buffer.put((byte) bits);
+                bits = 0;
+            }
+        }
+    }
+
+    static NeatGenome read(ByteBuffer buffer) {
+        try {
+            int nodeCount = getCount(buffer, 1 + 1 + 8);
+            int[] nodeIds = new int[nodeCount];
+            NodeGene.NodeType[] nodeTypes = new NodeGene.NodeType[nodeCount];
+            double[] nodeBiases = new double[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                nodeIds[i] = getVarint(buffer);
+                int type = buffer.get();
+                if (type < 0 || type >= NODE_TYPES.length) {
+                    throw new IllegalArgumentException("Type de nœud inconnu : " + type);
+                }
+                nodeTypes[i] = NODE_TYPES[type];
+                nodeBiases[i] = buffer.getDouble();
+            }
+
+            int connectionCount = getCount(buffer, 1 + 1 + 1 + 8);
+            int[] innovations = new int[connectionCount];
+            int[] inNodes = new int[connectionCount];
+            int[] outNodes = new int[connectionCount];
+            double[] weights = new double[connectionCount];
+            int innovation = 0;
+            for (int c = 0; c < connectionCount; c++) {
+                innovation += getVarint(buffer);
+                innovations[c] = innovation;
+                inNodes[c] = getVarint(buffer);
+                outNodes[c] = getVarint(buffer);
+                weights[c] = buffer.getDouble();
+            }
+
+            BitSet enabled = new BitSet(connectionCount);
+            int bits = 0;
+            for (int c = 0; c < connectionCount; c++) {
+                if ((c & 7) == 0) bits = buffer.get();
+                if ((bits & (1 << (c & 7))) != 0) enabled.set(c);
+            }
+
+            return NeatGenome.fromGenes(nodeCount, nodeIds, nodeTypes, nodeBiases,
+                    connectionCount, innovations, inNodes, outNodes, weights, enabled);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Génome binaire tronqué", e);
+        }
+    }
+
+    static int maxStateSize(NeatGenome genome) {
+        return maxEncodedSize(genome) + 8 + 8 + 1;
+    }
+
+    static void writeState(ByteBuffer buffer, NeatGenome genome) {
+        write(buffer, genome);
+        buffer.putDouble(genome.getFitness());
+        buffer.putDouble(genome.getAdjustedFitness());
+        // Bit 0 : dirty, bit 1 : fitness partiel
+        buffer.put((byte) ((genome.isDirty() ? 1 : 0) | (genome.isPartialFitness() ? 2 : 0)));
+    }
+
+    static NeatGenome readState(ByteBuffer buffer) {
+        NeatGenome genome = read(buffer);
+        try {
+            double fitness = buffer.getDouble();
+            double adjustedFitness = buffer.getDouble();
+            byte flags = buffer.get();
+            genome.restoreFitness(fitness, adjustedFitness, (flags & 1) != 0, (flags & 2) != 0);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Génome binaire tronqué", e);
+        }
+        return genome;
+    }
+
+    // --- Entiers variables (7 bits par octet, bit de poids fort = suite) ---
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Entier variable invalide");
+    }
+
+    // Nombre d'éléments, borné par les octets restants (protège contre une trame corrompue)
+    static int getCount(ByteBuffer buffer, int minBytesPerElement) {
+        int count = getVarint(buffer);
+        if (count < 0 || (long) count * minBytesPerElement > buffer.remaining()) {
+            throw new IllegalArgumentException("Nombre d'éléments invalide : " + count);
+        }
+        return count;
+    }
+}
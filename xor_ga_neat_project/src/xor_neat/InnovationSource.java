@@ -0,0 +1,13 @@
+package xor_neat;
+
+/**
+ * Source des numéros d'innovation et des IDs de nœuds utilisés par les mutations.
+ * InnovationTracker est la source globale ; pendant la reproduction parallèle, chaque enfant
+ * passe par une source provisoire (ProvisionalInnovations) validée ensuite dans l'ordre.
+ */
+public interface InnovationSource {
+
+    int getInnovation(int inNodeId, int outNodeId);
+
+    int getNewNodeId(int splitInnovationId);
+}
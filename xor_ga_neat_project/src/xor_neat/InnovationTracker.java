@@ -1,35 +1,96 @@
 package xor_neat;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 // Suit les innovations (nouveaux gènes) pour assurer un croisement correct.
-public class InnovationTracker {
+// Thread-safe : plusieurs threads de reproduction peuvent muter en même temps
+// et obtiennent les mêmes numéros pour la même innovation.
+//
+// Pour les longues exécutions, les tables peuvent rester bornées :
+// - mode "par génération" (article NEAT d'origine) : une même mutation structurelle n'est
+//   dédupliquée qu'au sein d'une génération (startGeneration() vide les tables) ;
+// - compaction : compact() retire les entrées qu'aucun génome vivant ne référence.
+public class InnovationTracker implements InnovationSource {
 
-    private int nextInnovationNumber = 0;
-    private int nextNodeId = 0;
+    // Espaces de noms : plages d'identifiants disjointes (une par île, voir IslandModel)
+    static final int NAMESPACE_BITS = 24;
+    static final int MAX_NAMESPACES = ProvisionalInnovations.PROVISIONAL_BASE >>> NAMESPACE_BITS;
 
-    // Map pour suivre les innovations de connexion (inNode, outNode) -> innovationId
-    private final Map<ConnectionKey, Integer> connectionInnovations = new HashMap<>();
-    
-    // Map pour suivre les innovations de nœud (basées sur l'innovation de la connexion qu'ils divisent)
-    private final Map<Integer, Integer> nodeInnovations = new HashMap<>();
+    private final AtomicInteger nextInnovationNumber;
+    private final AtomicInteger nextNodeId;
+    // Premier identifiant hors de l'espace du tracker (innovations et nœuds)
+    private final int idLimit;
+
+    // Innovations de connexion : clé (inNode << 32 | outNode) -> innovationId
+    private volatile Table connectionInnovations = new Table(64);
+
+    // Innovations de nœud (basées sur l'innovation de la connexion qu'ils divisent)
+    private volatile Table nodeInnovations = new Table(64);
+
+    // Verrou des insertions (les lectures n'en prennent jamais)
+    private final Object insertLock = new Object();
+
+    private final boolean perGeneration;
 
     public InnovationTracker(int initialNodeCount) {
-        this.nextNodeId = initialNodeCount;
+        this(initialNodeCount, false);
+    }
+
+    /**
+     * @param perGeneration déduplication limitée à la génération courante (voir startGeneration())
+     */
+    public InnovationTracker(int initialNodeCount, boolean perGeneration) {
+        this.nextInnovationNumber = new AtomicInteger(0);
+        this.nextNodeId = new AtomicInteger(initialNodeCount);
+        this.idLimit = ProvisionalInnovations.PROVISIONAL_BASE;
+        this.perGeneration = perGeneration;
+    }
+
+    /**
+     * Tracker dont les innovations et les nouveaux nœuds sont numérotés à partir de
+     * namespace << NAMESPACE_BITS : deux trackers d'espaces différents ne produisent jamais
+     * le même numéro (les nœuds initiaux, eux, sont communs). Un espace contient 2^NAMESPACE_BITS
+     * identifiants : au-delà, IllegalStateException plutôt que d'empiéter sur l'espace suivant.
+     */
+    public InnovationTracker(int initialNodeCount, boolean perGeneration, int namespace) {
+        if (namespace < 0 || namespace >= MAX_NAMESPACES) {
+            throw new IllegalArgumentException("Espace de noms hors limites : " + namespace);
+        }
+        int base = namespace << NAMESPACE_BITS;
+        this.nextInnovationNumber = new AtomicInteger(base);
+        this.nextNodeId = new AtomicInteger(base + initialNodeCount);
+        this.idLimit = base + (1 << NAMESPACE_BITS);
+        this.perGeneration = perGeneration;
+    }
+
+    // Tracker relu d'un point de sauvegarde (tables remplies ensuite par read())
+    private InnovationTracker(int nextInnovationNumber, int nextNodeId, int idLimit, boolean perGeneration) {
+        this.nextInnovationNumber = new AtomicInteger(nextInnovationNumber);
+        this.nextNodeId = new AtomicInteger(nextNodeId);
+        this.idLimit = idLimit;
+        this.perGeneration = perGeneration;
     }
 
     /**
      * Obtient ou crée un numéro d'innovation pour une nouvelle connexion.
      */
+    @Override
     public int getInnovation(int inNodeId, int outNodeId) {
-        ConnectionKey key = new ConnectionKey(inNodeId, outNodeId);
-        if (connectionInnovations.containsKey(key)) {
-            return connectionInnovations.get(key);
-        } else {
-            int innovation = nextInnovationNumber++;
-            connectionInnovations.put(key, innovation);
+        long key = connectionKey(inNodeId, outNodeId);
+        int innovation = connectionInnovations.get(key);
+        if (innovation != Table.MISSING) return innovation;
+
+        synchronized (insertLock) {
+            Table table = connectionInnovations;
+            innovation = table.get(key);
+            if (innovation != Table.MISSING) return innovation;
+            innovation = issue(nextInnovationNumber, "innovations");
+            connectionInnovations = table.put(key, innovation);
             return innovation;
         }
     }
@@ -38,37 +99,269 @@ public class InnovationTracker {
      * Obtient ou crée un ID de nœud pour une nouvelle mutation de nœud.
      * Le "splitInnovationId" est l'ID d'innovation de la connexion qui est divisée.
      */
+    @Override
     public int getNewNodeId(int splitInnovationId) {
-        if (nodeInnovations.containsKey(splitInnovationId)) {
-            return nodeInnovations.get(splitInnovationId);
-        } else {
-            int newNodeId = nextNodeId++;
-            nodeInnovations.put(splitInnovationId, newNodeId);
-            return newNodeId;
+        int nodeId = nodeInnovations.get(splitInnovationId);
+        if (nodeId != Table.MISSING) return nodeId;
+
+        synchronized (insertLock) {
+            Table table = nodeInnovations;
+            nodeId = table.get(splitInnovationId);
+            if (nodeId != Table.MISSING) return nodeId;
+            nodeId = issue(nextNodeId, "nœuds");
+            nodeInnovations = table.put(splitInnovationId, nodeId);
+            return nodeId;
         }
     }
-    
+
+    /**
+     * Innovation déjà attribuée à la connexion (in, out), ou -1 (lecture seule, sans verrou).
+     */
+    int findInnovation(int inNodeId, int outNodeId) {
+        return connectionInnovations.get(connectionKey(inNodeId, outNodeId));
+    }
+
+    /**
+     * Nœud déjà créé en divisant cette connexion, ou -1 (lecture seule, sans verrou).
+     */
+    int findNodeId(int splitInnovationId) {
+        return nodeInnovations.get(splitInnovationId);
+    }
+
     public int getNextNodeId() {
-        return nextNodeId++;
+        return issue(nextNodeId, "nœuds");
     }
 
-    // Classe helper pour la clé de la map
-    private static class ConnectionKey {
-        int in;
-        int out;
-        public ConnectionKey(int in, int out) { this.in = in; this.out = out; }
-        
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            ConnectionKey that = (ConnectionKey) o;
-            return in == that.in && out == that.out;
+    // Identifiant suivant d'un compteur ; un débordement donnerait des numéros déjà attribués ailleurs
+    private int issue(AtomicInteger counter, String kind) {
+        int id = counter.getAndIncrement();
+        if (id >= idLimit) {
+            throw new IllegalStateException("Identifiants de " + kind + " épuisés (limite " + idLimit + ")");
         }
-        
-        @Override
-        public int hashCode() {
-            return Objects.hash(in, out);
+        return id;
+    }
+
+    /**
+     * Début d'une phase de reproduction. En mode par génération, les innovations des
+     * générations précédentes sont oubliées : une mutation déjà vue recevra un nouveau numéro.
+     * Ne doit pas être appelé pendant que des threads mutent.
+     */
+    public void startGeneration() {
+        if (!perGeneration) return;
+        synchronized (insertLock) {
+            connectionInnovations = new Table(64);
+            nodeInnovations = new Table(64);
+        }
+    }
+
+    /**
+     * Retire les innovations qu'aucun génome vivant ne référence : connexions (in, out)
+     * absentes de tous les génomes, nœuds dont l'ID n'apparaît plus. Si une telle mutation
+     * réapparaît, elle recevra un nouveau numéro. Ne doit pas être appelé pendant que des threads mutent.
+     * Renvoie le nombre d'entrées supprimées.
+     */
+    public int compact(Collection<NeatGenome> livingGenomes) {
+        // Ensembles des connexions et des nœuds vivants (tables utilisées comme ensembles)
+        Table liveConnections = new Table(64);
+        Table liveNodes = new Table(64);
+        for (NeatGenome genome : livingGenomes) {
+            for (int c = 0; c < genome.getConnectionCount(); c++) {
+                long key = connectionKey(genome.getInNode(c), genome.getOutNode(c));
+                if (liveConnections.get(key) == Table.MISSING) liveConnections = liveConnections.put(key, 0);
+            }
+            for (int n = 0; n < genome.getNodeCount(); n++) {
+                int id = genome.getNodeId(n);
+                if (liveNodes.get(id) == Table.MISSING) liveNodes = liveNodes.put(id, 0);
+            }
+        }
+
+        synchronized (insertLock) {
+            Table connections = connectionInnovations;
+            Table nodes = nodeInnovations;
+            Table keptConnections = new Table(Table.capacityFor(liveConnections.size));
+            Table keptNodes = new Table(Table.capacityFor(liveNodes.size));
+            for (int i = 0; i < connections.values.length; i++) {
+                long key = connections.keys.get(i);
+                if (key != Table.EMPTY && liveConnections.get(key) != Table.MISSING) {
+                    keptConnections = keptConnections.put(key, connections.values[i]);
+                }
+            }
+            for (int i = 0; i < nodes.values.length; i++) {
+                long key = nodes.keys.get(i);
+                if (key != Table.EMPTY && liveNodes.get(nodes.values[i]) != Table.MISSING) {
+                    keptNodes = keptNodes.put(key, nodes.values[i]);
+                }
+            }
+            connectionInnovations = keptConnections;
+            nodeInnovations = keptNodes;
+            return (connections.size - keptConnections.size) + (nodes.size - keptNodes.size);
+        }
+    }
+
+    /**
+     * Nombre d'entrées vivantes (connexions + nœuds) dans les tables d'innovation.
+     */
+    public int getLiveEntryCount() {
+        return connectionInnovations.size + nodeInnovations.size;
+    }
+
+    /**
+     * Estimation de la mémoire occupée par les tables d'innovation, en octets.
+     */
+    public long getHeapBytes() {
+        return connectionInnovations.heapBytes() + nodeInnovations.heapBytes();
+    }
+
+    // --- Format binaire (points de sauvegarde) ---
+    // octet d'options (bit 0 : perGeneration, bit 1 : espace de noms borné à 2^NAMESPACE_BITS),
+    // varint prochaine innovation, varint prochain nœud ;
+    // varint nombre de connexions, puis par entrée (triées par innovation) : varint écart
+    // d'innovation, varint in, varint out ; varint nombre de nœuds, puis par entrée (triées
+    // par ID de nœud) : varint écart d'ID, varint innovation divisée.
+    // Ne doit pas être appelé pendant que des threads mutent.
+
+    int maxEncodedSize() {
+        return 1 + 5 + 5 + 5 + connectionInnovations.size * 15 + 5 + nodeInnovations.size * 10;
+    }
+
+    void write(ByteBuffer buffer) {
+        boolean namespaced = idLimit != ProvisionalInnovations.PROVISIONAL_BASE;
+        buffer.put((byte) ((perGeneration ? 1 : 0) | (namespaced ? 2 : 0)));
+        GenomeCodec.putVarint(buffer, nextInnovationNumber.get());
+        GenomeCodec.putVarint(buffer, nextNodeId.get());
+        writeTable(buffer, connectionInnovations, true);
+        writeTable(buffer, nodeInnovations, false);
+    }
+
+    static InnovationTracker read(ByteBuffer buffer) {
+        try {
+            int options = buffer.get();
+            boolean perGeneration = (options & 1) != 0;
+            int nextInnovation = GenomeCodec.getVarint(buffer);
+            int nextNode = GenomeCodec.getVarint(buffer);
+            // Espace de noms : celui du dernier nœud attribué (les nœuds initiaux y sont déjà)
+            int idLimit = ((options & 2) != 0)
+                    ? (((nextNode - 1) >>> NAMESPACE_BITS) + 1) << NAMESPACE_BITS
+                    : ProvisionalInnovations.PROVISIONAL_BASE;
+            InnovationTracker tracker = new InnovationTracker(nextInnovation, nextNode, idLimit, perGeneration);
+            tracker.connectionInnovations = readTable(buffer, true);
+            tracker.nodeInnovations = readTable(buffer, false);
+            return tracker;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Tracker d'innovations binaire tronqué", e);
+        }
+    }
+
+    // Entrées triées par valeur : les valeurs sont codées par écart (quelques bits chacune)
+    private static void writeTable(ByteBuffer buffer, Table table, boolean connectionKeys) {
+        long[] order = new long[table.size];
+        int n = 0;
+        for (int i = 0; i < table.values.length; i++) {
+            if (table.keys.get(i) != Table.EMPTY) order[n++] = ((long) table.values[i] << 32) | i;
+        }
+        Arrays.sort(order, 0, n);
+
+        GenomeCodec.putVarint(buffer, n);
+        int previous = 0;
+        for (int k = 0; k < n; k++) {
+            int slot = (int) order[k];
+            int value = table.values[slot];
+            long key = table.keys.get(slot);
+            GenomeCodec.putVarint(buffer, value - previous);
+            previous = value;
+            if (connectionKeys) {
+                GenomeCodec.putVarint(buffer, (int) (key >>> 32));
+                GenomeCodec.putVarint(buffer, (int) key);
+            } else {
+                GenomeCodec.putVarint(buffer, (int) key);
+            }
+        }
+    }
+
+    private static Table readTable(ByteBuffer buffer, boolean connectionKeys) {
+        int count = GenomeCodec.getCount(buffer, connectionKeys ? 3 : 2);
+        Table table = new Table(Table.capacityFor(count));
+        int value = 0;
+        for (int k = 0; k < count; k++) {
+            value += GenomeCodec.getVarint(buffer);
+            long key = connectionKeys
+                    ? connectionKey(GenomeCodec.getVarint(buffer), GenomeCodec.getVarint(buffer))
+                    : GenomeCodec.getVarint(buffer);
+            table = table.put(key, value);
+        }
+        return table;
+    }
+
+    private static long connectionKey(int inNodeId, int outNodeId) {
+        return ((long) inNodeId << 32) | (outNodeId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Table long -> int à adressage ouvert (sondage linéaire), sans objets clés.
+     * Lectures sans verrou : la valeur est écrite avant la clé, et la clé est publiée
+     * par une écriture volatile (AtomicLongArray). Les écritures se font sous insertLock ;
+     * l'agrandissement construit une nouvelle table, publiée par le champ volatile.
+     */
+    private static final class Table {
+
+        static final int MISSING = -1;
+        private static final long EMPTY = Long.MIN_VALUE; // Aucune clé (in, out) valide ne vaut MIN_VALUE
+
+        private final AtomicLongArray keys;
+        private final int[] values;
+        private final int mask;
+        private volatile int size = 0;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) keys.lazySet(i, EMPTY);
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(long key) {
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                long k = keys.get(i);
+                if (k == key) return values[i];
+                if (k == EMPTY) return MISSING;
+            }
+        }
+
+        // Appelé sous verrou. Renvoie la table à publier (this ou une table agrandie).
+        Table put(long key, int value) {
+            Table target = this;
+            if ((size + 1) * 2 > values.length) {
+                target = new Table(values.length * 2);
+                for (int i = 0; i < values.length; i++) {
+                    long k = keys.get(i);
+                    if (k != EMPTY) target.insert(k, values[i]);
+                }
+            }
+            target.insert(key, value);
+            return target;
+        }
+
+        // Capacité (puissance de 2) gardant le taux de remplissage sous 1/2
+        static int capacityFor(int entries) {
+            return Math.max(64, Integer.highestOneBit(Math.max(entries, 1) * 4 - 1));
+        }
+
+        // Tableaux + en-têtes d'objets (estimation)
+        long heapBytes() {
+            return 16L + (16L + 8L * values.length) + (16L + 4L * values.length) + 32L;
+        }
+
+        private void insert(long key, int value) {
+            int i = mix(key) & mask;
+            while (keys.get(i) != EMPTY) i = (i + 1) & mask;
+            values[i] = value;
+            keys.set(i, key); // Publication après la valeur
+            size++;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package xor_neat;
+
+import xor_common.RandomStreams;
+import xor_common.SplitMixRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Modèle en îles : K populations NEAT indépendantes (un NeatEngine séquentiel par île, chacun
+ * sur son thread) qui échangent leurs champions tous les migrationInterval générations.
+ *
+ * Une époque = migrationInterval générations de chaque île, en parallèle, sans synchronisation ;
+ * puis, à la barrière : bilans, migration selon la topologie (les champions remplacent les pires
+ * génomes de l'île d'arrivée), entretien du tracker partagé.
+ *
+ * Innovations : soit un espace de noms par île (numéros disjoints, exécution déterministe ;
+ * les gènes d'un migrant sont alors disjoints de ceux des natifs), soit un tracker commun
+ * (même structure = même numéro dans toutes les îles, mais numérotation dépendante de
+ * l'ordonnancement).
+ */
+public class IslandModel implements AutoCloseable {
+
+    private final NeatEngine[] islands;
+    private final InnovationTracker sharedTracker; // null = un espace de noms par île
+    private final ExecutorService executor;
+    private final MigrationTopology topology;
+    private final int migrationInterval;
+    private final int migrantCount;
+
+    public IslandModel(NeatConfig config, int inputCount, int outputCount,
+                       ToDoubleFunction<NeatGenome> fitnessFunction, long seed,
+                       int islandCount, boolean sharedInnovations,
+                       MigrationTopology topology, int migrationInterval, int migrantCount) {
+        if (islandCount < 1 || islandCount > InnovationTracker.MAX_NAMESPACES) {
+            throw new IllegalArgumentException("Nombre d'îles invalide : " + islandCount
+                    + " (1 à " + InnovationTracker.MAX_NAMESPACES + ")");
+        }
+        this.topology = topology;
+        this.migrationInterval = Math.max(1, migrationInterval);
+        this.migrantCount = migrantCount;
+
+        int initialNodes = inputCount + 1 + outputCount;
+        this.sharedTracker = sharedInnovations
+                ? new InnovationTracker(initialNodes, NeatConfig.INNOVATION_PER_GENERATION)
+                : null;
+
+        // Une graine par île, dérivée de celle du modèle
+        SplitMixRandom root = RandomStreams.root(seed);
+        this.islands = new NeatEngine[islandCount];
+        for (int k = 0; k < islandCount; k++) {
+            InnovationTracker tracker = sharedInnovations ? sharedTracker
+                    : new InnovationTracker(initialNodes, NeatConfig.INNOVATION_PER_GENERATION, k);
+            islands[k] = new NeatEngine(config, inputCount, outputCount, fitnessFunction, root.nextLong(),
+                    null, false, tracker, !sharedInnovations, null);
+        }
+
+        this.executor = Executors.newFixedThreadPool(islandCount, task -> {
+            Thread thread = new Thread(task, "neat-island");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fait évoluer les îles jusqu'à ce que stopCondition soit vraie pour le bilan agrégé
+     * d'une génération, ou jusqu'à maxGenerations. listener reçoit, sur le thread appelant et
+     * dans l'ordre des générations, le bilan agrégé des îles (max, moyenne des moyennes, somme
+     * des espèces et du débit) ; les bilans d'une époque sont publiés à sa barrière.
+     * Une île qui remplit stopCondition s'arrête aussitôt ; les autres terminent l'époque.
+     */
+    public GenerationStats run(Predicate<GenerationStats> stopCondition, int maxGenerations,
+                               Consumer<GenerationStats> listener) {
+        GenerationStats last = null;
+        int epochStart = 0;
+        while (true) {
+            int epochEnd = Math.min(epochStart + migrationInterval, maxGenerations);
+            List<List<GenerationStats>> histories = runEpoch(epochEnd, stopCondition);
+
+            for (int gen = epochStart + 1; gen <= epochEnd; gen++) {
+                GenerationStats merged = merge(histories, gen - epochStart - 1);
+                if (merged == null) break;
+                last = merged;
+                listener.accept(merged);
+                if (stopCondition.test(merged)) return merged;
+            }
+            if (epochEnd >= maxGenerations) return last;
+
+            migrate();
+            maintainSharedTracker(epochStart, epochEnd);
+            epochStart = epochEnd;
+        }
+    }
+
+    // Chaque île avance jusqu'à la génération epochEnd ; renvoie les bilans de chacune
+    private List<List<GenerationStats>> runEpoch(int epochEnd, Predicate<GenerationStats> stopCondition) {
+        List<Callable<List<GenerationStats>>> tasks = new ArrayList<>(islands.length);
+        for (NeatEngine island : islands) {
+            tasks.add(() -> {
+                List<GenerationStats> history = new ArrayList<>();
+                // La dernière génération de l'époque précédente est évaluée (et a reçu ses migrants)
+                if (island.getGeneration() > 0) island.breed();
+                island.runUntil(stopCondition, epochEnd, history::add);
+                return history;
+            });
+        }
+
+        List<List<GenerationStats>> histories = new ArrayList<>(islands.length);
+        try {
+            for (Future<List<GenerationStats>> future : executor.invokeAll(tasks)) {
+                histories.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Évolution des îles interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur dans une île", e.getCause());
+        }
+        return histories;
+    }
+
+    // Bilan agrégé de la index-ième génération de l'époque (null si aucune île ne l'a atteinte)
+    private static GenerationStats merge(List<List<GenerationStats>> histories, int index) {
+        GenerationStats bestIsland = null;
+        double averageSum = 0.0;
+        double reuseSum = 0.0;
+        double rateSum = 0.0;
+        int speciesCount = 0;
+        int innovationEntries = 0;
+        long innovationBytes = 0;
+        long evaluations = 0;
+        int reporting = 0;
+
+        for (List<GenerationStats> history : histories) {
+            if (index >= history.size()) continue;
+            GenerationStats stats = history.get(index);
+            if (bestIsland == null || stats.getMaxFitness() > bestIsland.getMaxFitness()) bestIsland = stats;
+            averageSum += stats.getAverageFitness();
+            reuseSum += stats.getReuseRate();
+            rateSum += stats.getEvaluationsPerSecond();
+            speciesCount += stats.getSpeciesCount();
+            innovationEntries += stats.getInnovationEntries();
+            innovationBytes += stats.getInnovationHeapBytes();
+            evaluations += stats.getEvaluations();
+            reporting++;
+        }
+        if (bestIsland == null) return null;
+
+        return new GenerationStats(bestIsland.getGeneration(), bestIsland.getMaxFitness(), averageSum / reporting,
+                speciesCount, bestIsland.getBest(), reuseSum / reporting, innovationEntries, innovationBytes,
+                evaluations, rateSum);
+    }
+
+    // Les champions de chaque île partent tous avant la première arrivée : l'ordre des îles est sans effet
+    private void migrate() {
+        if (migrantCount <= 0) return;
+        List<List<NeatGenome>> outgoing = new ArrayList<>(islands.length);
+        for (NeatEngine island : islands) {
+            outgoing.add(island.emigrants(migrantCount));
+        }
+        for (int target = 0; target < islands.length; target++) {
+            List<NeatGenome> incoming = new ArrayList<>();
+            for (int source : topology.sources(target, islands.length)) {
+                incoming.addAll(outgoing.get(source));
+            }
+            if (!incoming.isEmpty()) islands[target].immigrate(incoming);
+        }
+    }
+
+    // Tracker commun : entretenu à la barrière seulement, quand aucune île ne mute
+    private void maintainSharedTracker(int epochStart, int epochEnd) {
+        if (sharedTracker == null) return;
+        sharedTracker.startGeneration();
+        int interval = NeatConfig.INNOVATION_COMPACTION_INTERVAL;
+        if (interval > 0 && epochEnd / interval > epochStart / interval) {
+            List<NeatGenome> living = new ArrayList<>();
+            for (NeatEngine island : islands) living.addAll(island.getPopulation());
+            sharedTracker.compact(living);
+        }
+    }
+
+    // Meilleur génome toutes îles confondues
+    public NeatGenome getBestGenome() {
+        NeatGenome best = null;
+        for (NeatEngine island : islands) {
+            NeatGenome candidate = island.getBestGenome();
+            if (candidate != null && (best == null || candidate.getFitness() > best.getFitness())) best = candidate;
+        }
+        return best;
+    }
+
+    public int getIslandCount() {
+        return islands.length;
+    }
+
+    // Évaluation interrompue sur toutes les îles (voir NeatEngine.setEarlyExit)
+    public void setEarlyExit(BoundedFitnessFunction fitnessFunction) {
+        for (NeatEngine island : islands) island.setEarlyExit(fitnessFunction);
+    }
+
+    public long getPartialEvaluations() {
+        long total = 0;
+        for (NeatEngine island : islands) total += island.getPartialEvaluations();
+        return total;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (NeatEngine island : islands) island.close();
+    }
+}
@@ -0,0 +1,33 @@
+package xor_neat;
+
+/**
+ * Topologie des migrations du modèle en îles : d'où viennent les champions reçus par une île.
+ */
+public enum MigrationTopology {
+
+    // Anneau : l'île i reçoit les champions de l'île i - 1
+    RING,
+    // Complète : chaque île reçoit les champions de toutes les autres
+    FULLY_CONNECTED;
+
+    /**
+     * Îles sources de l'île target (jamais target elle-même).
+     */
+    int[] sources(int target, int islandCount) {
+        if (islandCount < 2) return new int[0];
+        switch (this) {
+            case RING:
+                return new int[]{(target - 1 + islandCount) % islandCount};
+            case FULLY_CONNECTED: {
+                int[] sources = new int[islandCount - 1];
+                int n = 0;
+                for (int i = 0; i < islandCount; i++) {
+                    if (i != target) sources[n++] = i;
+                }
+                return sources;
+            }
+            default:
+                throw new IllegalStateException("Topologie inconnue : " + this);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package xor_neat;
+
+import xor_common.SplitMixRandom;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * État complet d'une exécution NEAT entre deux générations (population non évaluée) :
+ * de quoi reprendre l'exécution exactement là où elle s'était arrêtée.
+ *
+ * Fichier : [int magique][int version][int longueur][charge utile][int CRC32C de la charge]
+ * Charge : long graine, int entrées, int sorties, int génération, long fitness calculés ;
+ *   états (graine, gamma) des flux de spéciation, de reproduction et du mode stationnaire ;
+ *   tracker d'innovations ; varint taille + population (GenomeCodec.writeState) ;
+ *   varint nombre + espèces (représentants) ; octet présence + meilleur génome.
+ *
+ * Écriture et lecture par FileChannel, sans projection mémoire : un fichier projeté ne peut pas
+ * être remplacé (sous Windows) tant que la projection vit. L'écriture passe par un fichier
+ * temporaire renommé ensuite : un arrêt pendant l'écriture laisse le point précédent intact.
+ */
+final class NeatCheckpoint {
+
+    private static final int MAGIC = 0x4E43504B; // "NCPK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4;
+
+    final long seed;
+    final int inputCount;
+    final int outputCount;
+    final int generation;
+    final long evaluations;
+    final SplitMixRandom speciationRandom;
+    final SplitMixRandom reproductionRandom;
+    final SplitMixRandom steadyStateRandom;
+    final InnovationTracker tracker;
+    final List<NeatGenome> population;
+    final List<Species> species;
+    final NeatGenome bestGenome; // null avant la première évaluation
+
+    NeatCheckpoint(long seed, int inputCount, int outputCount, int generation, long evaluations,
+                   SplitMixRandom speciationRandom, SplitMixRandom reproductionRandom,
+                   SplitMixRandom steadyStateRandom, InnovationTracker tracker,
+                   List<NeatGenome> population, List<Species> species, NeatGenome bestGenome) {
+        this.seed = seed;
+        this.inputCount = inputCount;
+        this.outputCount = outputCount;
+        this.generation = generation;
+        this.evaluations = evaluations;
+        this.speciationRandom = speciationRandom;
+        this.reproductionRandom = reproductionRandom;
+        this.steadyStateRandom = steadyStateRandom;
+        this.tracker = tracker;
+        this.population = population;
+        this.species = species;
+        this.bestGenome = bestGenome;
+    }
+
+    /**
+     * Écrit le point de sauvegarde dans file. buffer : tampon de l'écriture précédente
+     * (réutilisé s'il est assez grand, null sinon) ; renvoie le tampon utilisé.
+     */
+    ByteBuffer save(Path file, ByteBuffer buffer, boolean sync) throws IOException {
+        int size = maxEncodedSize();
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size + size / 4);
+        }
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        writePayload(buffer);
+        int payloadEnd = buffer.position();
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES).limit(payloadEnd));
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, payloadEnd - HEADER_BYTES);
+        buffer.flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            if (sync) channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return buffer;
+    }
+
+    static NeatCheckpoint load(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Point de sauvegarde invalide (taille " + size + ") : " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new IOException("Point de sauvegarde tronqué : " + file);
+            }
+            buffer.flip();
+        }
+
+        if (buffer.getInt() != MAGIC) throw new IOException("Pas un point de sauvegarde NEAT : " + file);
+        int version = buffer.getInt();
+        if (version != VERSION) throw new IOException("Version de point de sauvegarde non gérée : " + version);
+        int length = buffer.getInt();
+        if (length != buffer.remaining() - 4) throw new IOException("Point de sauvegarde tronqué : " + file);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(HEADER_BYTES + length));
+        if ((int) crc.getValue() != buffer.getInt(HEADER_BYTES + length)) {
+            throw new IOException("Point de sauvegarde corrompu (CRC) : " + file);
+        }
+
+        try {
+            NeatCheckpoint checkpoint = readPayload(buffer.limit(HEADER_BYTES + length));
+            if (buffer.hasRemaining()) throw new IllegalArgumentException("Octets en trop : " + buffer.remaining());
+            return checkpoint;
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Point de sauvegarde illisible : " + file, e);
+        }
+    }
+
+    private int maxEncodedSize() {
+        int size = HEADER_BYTES + 8 + 4 + 4 + 4 + 8 + 3 * 16 + tracker.maxEncodedSize() + 5 + 5 + 1 + 4;
+        for (NeatGenome genome : population) size += GenomeCodec.maxStateSize(genome);
+        for (Species s : species) size += s.maxEncodedSize(false);
+        if (bestGenome != null) size += GenomeCodec.maxStateSize(bestGenome);
+        return size;
+    }
+
+    private void writePayload(ByteBuffer buffer) {
+        buffer.putLong(seed).putInt(inputCount).putInt(outputCount).putInt(generation).putLong(evaluations);
+        putRandom(buffer, speciationRandom);
+        putRandom(buffer, reproductionRandom);
+        putRandom(buffer, steadyStateRandom);
+        tracker.write(buffer);
+
+        GenomeCodec.putVarint(buffer, population.size());
+        for (NeatGenome genome : population) GenomeCodec.writeState(buffer, genome);
+        GenomeCodec.putVarint(buffer, species.size());
+        for (Species s : species) s.write(buffer, false);
+
+        buffer.put((byte) (bestGenome != null ? 1 : 0));
+        if (bestGenome != null) GenomeCodec.writeState(buffer, bestGenome);
+    }
+
+    private static NeatCheckpoint readPayload(ByteBuffer buffer) {
+        long seed = buffer.getLong();
+        int inputCount = buffer.getInt();
+        int outputCount = buffer.getInt();
+        int generation = buffer.getInt();
+        long evaluations = buffer.getLong();
+        SplitMixRandom speciationRandom = getRandom(buffer);
+        SplitMixRandom reproductionRandom = getRandom(buffer);
+        SplitMixRandom steadyStateRandom = getRandom(buffer);
+        InnovationTracker tracker = InnovationTracker.read(buffer);
+
+        int populationSize = GenomeCodec.getCount(buffer, 1);
+        List<NeatGenome> population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) population.add(GenomeCodec.readState(buffer));
+        int speciesCount = GenomeCodec.getCount(buffer, 1);
+        List<Species> species = new ArrayList<>(speciesCount);
+        for (int i = 0; i < speciesCount; i++) species.add(Species.read(buffer));
+
+        NeatGenome bestGenome = (buffer.get() != 0) ? GenomeCodec.readState(buffer) : null;
+        return new NeatCheckpoint(seed, inputCount, outputCount, generation, evaluations,
+                speciationRandom, reproductionRandom, steadyStateRandom, tracker, population, species, bestGenome);
+    }
+
+    private static void putRandom(ByteBuffer buffer, SplitMixRandom random) {
+        buffer.putLong(random.getSeed()).putLong(random.getGamma());
+    }
+
+    private static SplitMixRandom getRandom(ByteBuffer buffer) {
+        return SplitMixRandom.restore(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -6,6 +6,56 @@ public class NeatConfig {
     public static final int MAX_GENERATIONS = 1000;
     public static final double FITNESS_THRESHOLD = 15.9; // 3.99^2
 
+    // Graine de l'exécution (0 = aléatoire, affichée). Même graine => même résultat, quel que soit le parallélisme
+    public static final long RANDOM_SEED = 0;
+
+    // Tâche : TASK ("xor", "parity" ou "multiplexer", voir TruthTableTask) de taille TASK_SIZE
+    // (bits de parité / bits d'adresse) si DATASET_FILE est vide, sinon jeu de données float32
+    // projeté en mémoire (voir MappedDataset)
+    public static final String TASK = "xor";
+    public static final int TASK_SIZE = 4;
+    public static final String DATASET_FILE = "";
+    public static final int DATASET_INPUTS = 2;
+    public static final int DATASET_OUTPUTS = 1;
+
+    // Évaluation interrompue : un enfant qui ne peut plus atteindre le pire survivant de la sélection
+    // arrête de parcourir les lignes et reçoit un fitness partiel (sans effet avec des workers distants)
+    public static final boolean EARLY_EXIT = false;
+
+    // Parallélisme : évaluation, spéciation et reproduction (1 = séquentiel)
+    public static final int EVALUATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // Mémoïsation du fitness (0 = pas de cache ; les génomes non modifiés ne sont jamais réévalués)
+    public static final int FITNESS_CACHE_SIZE = 4096;
+
+    // Tables d'innovation (longues exécutions)
+    public static final boolean INNOVATION_PER_GENERATION = false; // Déduplication limitée à une génération (article NEAT)
+    public static final int INNOVATION_COMPACTION_INTERVAL = 50; // Générations entre deux compactions (0 = jamais)
+
+    // Mode stationnaire (rtNEAT) : le pire individu est remplacé en continu, sans barrière de génération
+    public static final boolean STEADY_STATE = false;
+    // Enfants en cours d'évaluation (>= 2 x threads pour occuper les cœurs). Le résultat dépend
+    // de cette profondeur mais pas du nombre de threads
+    public static final int STEADY_STATE_PIPELINE_DEPTH = 16;
+
+    // Modèle en îles : ISLAND_COUNT populations indépendantes (une par cœur), migration des champions
+    public static final int ISLAND_COUNT = 1; // 1 = population unique
+    public static final int MIGRATION_INTERVAL = 20; // Générations entre deux migrations
+    public static final int MIGRANT_COUNT = 2; // Champions envoyés par chaque île
+    public static final MigrationTopology MIGRATION_TOPOLOGY = MigrationTopology.RING;
+    public static final boolean ISLAND_SHARED_INNOVATIONS = false; // Tracker commun (non déterministe) ou un espace de noms par île
+
+    // Évaluation distribuée : workers lancés en processus locaux sur 127.0.0.1 (0 = évaluation locale)
+    public static final int REMOTE_WORKERS = 0;
+    public static final int REMOTE_BATCH_SIZE = 32; // Génomes par trame
+    public static final int REMOTE_IN_FLIGHT = 2; // Trames en vol par worker (pipelining)
+    public static final long REMOTE_TIMEOUT_MS = 2000; // Délai avant réexpédition d'une trame à un autre worker
+
+    // Points de sauvegarde (mode par générations) : reprise par "NeatXorSolver --resume"
+    public static final int CHECKPOINT_INTERVAL = 50; // Générations entre deux sauvegardes (0 = jamais)
+    public static final String CHECKPOINT_FILE = "neat_checkpoint.bin";
+    public static final boolean CHECKPOINT_SYNC = false; // fsync : survit à une coupure de courant, plus lent
+
     // Taux de Mutation (Ajustés d'après NEAT-Python)
     public static final double MUTATE_WEIGHT_RATE = 0.8;
     public static final double WEIGHT_PERTURB_RATE = 0.9;
@@ -0,0 +1,675 @@
+package xor_neat;
+
+import xor_common.RandomStreams;
+import xor_common.SplitMixRandom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Une exécution NEAT complète : tracker d'innovations, population, espèces, flux aléatoires
+ * et meilleur génome. Aucun état statique : plusieurs moteurs peuvent tourner en même temps
+ * dans la même JVM, chacun sur son propre thread, en partageant un même ForkJoinPool
+ * (évaluation, spéciation et reproduction y découpent leur travail).
+ *
+ * Une génération = evaluate() (fitness, tri, bilan) puis breed() (spéciation, reproduction) ;
+ * step() enchaîne les deux, runUntil() boucle jusqu'à une condition d'arrêt.
+ * runSteadyState() fait évoluer la même population en mode stationnaire (rtNEAT).
+ * Un moteur n'est pas thread-safe : un seul thread à la fois doit l'appeler.
+ * Même graine => même exécution, quel que soit le pool.
+ * saveCheckpoint() / resume() : sauvegarde binaire de l'état entre deux générations et reprise exacte.
+ */
+public class NeatEngine implements AutoCloseable {
+
+    private final NeatConfig config;
+    private final int inputCount;
+    private final int outputCount;
+    private final ToDoubleFunction<NeatGenome> fitnessFunction;
+    // Évaluation interrompue (null = désactivée), voir setEarlyExit()
+    private BoundedFitnessFunction earlyExit = null;
+    private final long seed;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final PopulationEvaluator evaluator;
+    private final RemoteEvaluator remote; // null = fitness calculé localement
+    private final Speciator speciator;
+    private final Reproducer reproducer;
+
+    // Flux du thread appelant pendant breed() (choix des représentants)
+    private final SplitMixRandom speciationRandom;
+    // Flux du mode stationnaire (choix des espèces, enfants, représentants)
+    private final SplitMixRandom steadyStateRandom;
+
+    private final InnovationTracker innovationTracker;
+    // Faux si le tracker est partagé : son propriétaire le compacte (voir IslandModel)
+    private final boolean maintainTracker;
+    private List<NeatGenome> population;
+    private final List<Species> species = new ArrayList<>();
+    private NeatGenome bestOverallGenome = null;
+
+    private int generation = 0;
+    private GenerationStats lastStats = null; // Bilan de la population courante si elle est évaluée
+
+    // Points de sauvegarde périodiques (null = désactivés) ; tampon réutilisé d'une écriture à l'autre
+    private Path checkpointFile = null;
+    private int checkpointInterval = 0;
+    private ByteBuffer checkpointBuffer = null;
+    private long lastCheckpointBytes = 0;
+    private long lastCheckpointNanos = 0;
+
+    // Débit : fitness calculés depuis le début, et depuis le bilan précédent
+    private long evaluations = 0;
+    private long periodEvaluations = 0;
+    private long partialEvaluations = 0; // Évaluations interrompues (non sauvegardé)
+    private long periodStartNanos;
+
+    /**
+     * Moteur avec son propre pool (NeatConfig.EVALUATION_THREADS threads, fermé par close()).
+     */
+    public NeatEngine(NeatConfig config, int inputCount, int outputCount,
+                      ToDoubleFunction<NeatGenome> fitnessFunction, long seed) {
+        this(config, inputCount, outputCount, fitnessFunction, seed,
+                (NeatConfig.EVALUATION_THREADS > 1) ? new ForkJoinPool(NeatConfig.EVALUATION_THREADS) : null, true,
+                null, true, null);
+    }
+
+    /**
+     * Moteur dont le fitness est calculé par des workers distants (voir RemoteEvaluator) ;
+     * fitnessFunction doit être celle des workers (elle n'est pas appelée localement).
+     */
+    public NeatEngine(NeatConfig config, int inputCount, int outputCount,
+                      ToDoubleFunction<NeatGenome> fitnessFunction, long seed, RemoteEvaluator remote) {
+        this(config, inputCount, outputCount, fitnessFunction, seed,
+                (NeatConfig.EVALUATION_THREADS > 1) ? new ForkJoinPool(NeatConfig.EVALUATION_THREADS) : null, true,
+                null, true, remote);
+    }
+
+    /**
+     * Moteur sur un pool partagé entre plusieurs exécutions (non fermé par close() ; null = séquentiel).
+     * La fonction de fitness est appelée en concurrence : elle doit être sans état partagé.
+     */
+    public NeatEngine(NeatConfig config, int inputCount, int outputCount,
+                      ToDoubleFunction<NeatGenome> fitnessFunction, long seed, ForkJoinPool sharedPool) {
+        this(config, inputCount, outputCount, fitnessFunction, seed, sharedPool, false, null, true, null);
+    }
+
+    /**
+     * @param tracker tracker d'innovations fourni (null = tracker propre au moteur)
+     * @param maintainTracker faux si le tracker est partagé entre moteurs : startGeneration()
+     *                        et compact() sont alors laissés à l'appelant
+     * @param remote évaluateur distant (null = fitness calculé sur le pool)
+     */
+    NeatEngine(NeatConfig config, int inputCount, int outputCount,
+               ToDoubleFunction<NeatGenome> fitnessFunction, long seed,
+               ForkJoinPool pool, boolean ownsPool, InnovationTracker tracker, boolean maintainTracker,
+               RemoteEvaluator remote) {
+        this(config, fitnessFunction, initialState(seed, inputCount, outputCount, tracker),
+                pool, ownsPool, maintainTracker, remote);
+    }
+
+    // Moteur dans l'état donné (exécution neuve ou point de sauvegarde relu)
+    private NeatEngine(NeatConfig config, ToDoubleFunction<NeatGenome> fitnessFunction, NeatCheckpoint state,
+                       ForkJoinPool pool, boolean ownsPool, boolean maintainTracker, RemoteEvaluator remote) {
+        this.config = config;
+        this.inputCount = state.inputCount;
+        this.outputCount = state.outputCount;
+        this.fitnessFunction = fitnessFunction;
+        this.seed = state.seed;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+
+        this.speciationRandom = state.speciationRandom;
+        this.steadyStateRandom = state.steadyStateRandom;
+
+        this.remote = remote;
+        this.evaluator = new PopulationEvaluator(pool, NeatConfig.FITNESS_CACHE_SIZE, remote);
+        this.speciator = new Speciator(pool);
+        this.reproducer = new Reproducer(pool, state.reproductionRandom);
+
+        this.innovationTracker = state.tracker;
+        this.maintainTracker = maintainTracker;
+        this.population = new ArrayList<>(state.population);
+        this.species.addAll(state.species);
+        this.bestOverallGenome = state.bestGenome;
+        this.generation = state.generation;
+        this.evaluations = state.evaluations;
+        this.periodStartNanos = System.nanoTime();
+    }
+
+    // Exécution neuve : population initiale et flux dérivés de la graine
+    private static NeatCheckpoint initialState(long seed, int inputCount, int outputCount, InnovationTracker tracker) {
+        // Flux indépendants dérivés de la graine : initialisation, spéciation, reproduction, mode stationnaire
+        SplitMixRandom root = RandomStreams.root(seed);
+        SplitMixRandom initRandom = root.split();
+        SplitMixRandom speciationRandom = root.split();
+        SplitMixRandom reproductionRandom = root.split();
+        SplitMixRandom steadyStateRandom = root.split();
+
+        // Inputs + Biais + Outputs
+        InnovationTracker innovationTracker = (tracker != null) ? tracker
+                : new InnovationTracker(inputCount + 1 + outputCount, NeatConfig.INNOVATION_PER_GENERATION);
+        List<NeatGenome> population = new ArrayList<>(NeatConfig.POPULATION_SIZE);
+
+        RandomGenerator previous = RandomStreams.set(initRandom);
+        try {
+            for (int i = 0; i < NeatConfig.POPULATION_SIZE; i++) {
+                population.add(new NeatGenome(inputCount, outputCount, innovationTracker));
+            }
+        } finally {
+            RandomStreams.set(previous);
+        }
+        return new NeatCheckpoint(seed, inputCount, outputCount, 0, 0, speciationRandom, reproductionRandom,
+                steadyStateRandom, innovationTracker, population, List.of(), null);
+    }
+
+    /**
+     * Reprend une exécution depuis un point de sauvegarde (voir saveCheckpoint()), avec son propre
+     * pool : la suite est identique à celle de l'exécution d'origine. Seul le cache de fitness
+     * repart vide (mêmes valeurs, quelques évaluations de plus).
+     */
+    public static NeatEngine resume(Path file, NeatConfig config, ToDoubleFunction<NeatGenome> fitnessFunction)
+            throws IOException {
+        return new NeatEngine(config, fitnessFunction, NeatCheckpoint.load(file),
+                (NeatConfig.EVALUATION_THREADS > 1) ? new ForkJoinPool(NeatConfig.EVALUATION_THREADS) : null, true,
+                true, null);
+    }
+
+    /**
+     * Reprise sur un pool partagé (non fermé par close() ; null = séquentiel).
+     */
+    public static NeatEngine resume(Path file, NeatConfig config, ToDoubleFunction<NeatGenome> fitnessFunction,
+                                    ForkJoinPool sharedPool) throws IOException {
+        return new NeatEngine(config, fitnessFunction, NeatCheckpoint.load(file), sharedPool, false, true, null);
+    }
+
+    /**
+     * Reprise avec évaluation par des workers distants (voir RemoteEvaluator).
+     */
+    public static NeatEngine resume(Path file, NeatConfig config, ToDoubleFunction<NeatGenome> fitnessFunction,
+                                    RemoteEvaluator remote) throws IOException {
+        return new NeatEngine(config, fitnessFunction, NeatCheckpoint.load(file),
+                (NeatConfig.EVALUATION_THREADS > 1) ? new ForkJoinPool(NeatConfig.EVALUATION_THREADS) : null, true,
+                true, remote);
+    }
+
+    /**
+     * Évalue la population courante (si ce n'est déjà fait) et la trie, meilleur en premier.
+     */
+    public GenerationStats evaluate() {
+        if (lastStats != null) return lastStats;
+
+        generation++;
+        if (earlyExit != null) {
+            evaluator.evaluate(population, earlyExit, survivorCutoff());
+            partialEvaluations += evaluator.getLastPartialCount();
+        } else {
+            evaluator.evaluate(population, fitnessFunction);
+        }
+        countEvaluations(population.size() - evaluator.getLastReusedCount());
+        lastStats = snapshot(evaluator.getLastReuseRate());
+        return lastStats;
+    }
+
+    // Trie la population et dresse le bilan de la génération courante
+    private GenerationStats snapshot(double reuseRate) {
+        population.sort(Collections.reverseOrder(Comparator.comparingDouble(NeatGenome::getFitness)));
+
+        NeatGenome currentBest = population.get(0);
+        if (bestOverallGenome == null || currentBest.getFitness() > bestOverallGenome.getFitness()) {
+            bestOverallGenome = currentBest.copy();
+        }
+
+        long now = System.nanoTime();
+        double seconds = Math.max(now - periodStartNanos, 1L) / 1e9;
+        double evaluationsPerSecond = periodEvaluations / seconds;
+        periodEvaluations = 0;
+        periodStartNanos = now;
+
+        double avgFitness = population.stream().mapToDouble(NeatGenome::getFitness).average().orElse(0.0);
+        return new GenerationStats(generation, currentBest.getFitness(), avgFitness, species.size(),
+                currentBest, reuseRate, innovationTracker.getLiveEntryCount(), innovationTracker.getHeapBytes(),
+                evaluations, evaluationsPerSecond);
+    }
+
+    // Seuil par générations : pire génome passé tel quel par la sélection (champions d'espèce,
+    // clones non mutés) ; aucun à la première génération
+    private double survivorCutoff() {
+        double cutoff = Double.POSITIVE_INFINITY;
+        for (NeatGenome genome : population) {
+            if (!genome.isDirty() && !genome.isPartialFitness()) cutoff = Math.min(cutoff, genome.getFitness());
+        }
+        return (cutoff == Double.POSITIVE_INFINITY) ? Double.NEGATIVE_INFINITY : cutoff;
+    }
+
+    // Seuil du mode stationnaire : le pire individu, prochain remplacé
+    private double worstCutoff() {
+        double cutoff = Double.POSITIVE_INFINITY;
+        for (NeatGenome genome : population) {
+            if (!genome.isPartialFitness()) cutoff = Math.min(cutoff, genome.getFitness());
+        }
+        return (cutoff == Double.POSITIVE_INFINITY) ? Double.NEGATIVE_INFINITY : cutoff;
+    }
+
+    private void countEvaluations(long count) {
+        evaluations += count;
+        periodEvaluations += count;
+    }
+
+    /**
+     * Spéciation puis reproduction : remplace la population par la génération suivante
+     * (non évaluée). Évalue d'abord la population courante si nécessaire.
+     */
+    public void breed() {
+        evaluate();
+
+        RandomGenerator previous = RandomStreams.set(speciationRandom);
+        try {
+            speciate();
+
+            if (maintainTracker) innovationTracker.startGeneration();
+
+            // Calcul du fitness total ajusté
+            double totalAdjustedFitness = 0.0;
+            for (Species s : species) {
+                s.adjustFitness();
+                totalAdjustedFitness += s.getTotalAdjustedFitness();
+            }
+
+            List<NeatGenome> nextGeneration;
+            if (totalAdjustedFitness <= 0) {
+                // Sécurité : si tout le monde est nul, on garde la population actuelle
+                nextGeneration = new ArrayList<>(population);
+            } else {
+                nextGeneration = reproducer.reproduce(species, totalAdjustedFitness, NeatConfig.POPULATION_SIZE,
+                        config, innovationTracker, inputCount, outputCount);
+            }
+            population = nextGeneration;
+            lastStats = null;
+
+            // Compaction des innovations que plus aucun génome ne porte
+            if (maintainTracker && NeatConfig.INNOVATION_COMPACTION_INTERVAL > 0
+                    && generation % NeatConfig.INNOVATION_COMPACTION_INTERVAL == 0) {
+                innovationTracker.compact(population);
+            }
+        } finally {
+            RandomStreams.set(previous);
+        }
+
+        if (checkpointFile != null && generation % checkpointInterval == 0) {
+            try {
+                saveCheckpoint(checkpointFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture du point de sauvegarde impossible : " + checkpointFile, e);
+            }
+        }
+    }
+
+    /**
+     * Points de sauvegarde périodiques : après le breed() de chaque génération multiple de
+     * interval, l'état complet est écrit dans file (file null ou interval <= 0 = désactivé).
+     * Ne concerne que le mode par générations (runUntil(), step()).
+     */
+    public void setCheckpoint(Path file, int interval) {
+        this.checkpointFile = (interval > 0) ? file : null;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Écrit l'état complet de l'exécution (population, espèces, innovations, flux aléatoires,
+     * meilleur génome) ; resume() reprend ensuite exactement là. Possible seulement entre deux
+     * générations : avant la première évaluation ou après breed().
+     * Moteur propriétaire de son tracker uniquement (pas d'île à tracker partagé).
+     */
+    public void saveCheckpoint(Path file) throws IOException {
+        if (lastStats != null) {
+            throw new IllegalStateException("Point de sauvegarde possible seulement entre deux générations (après breed())");
+        }
+        if (!maintainTracker) {
+            throw new IllegalStateException("Point de sauvegarde impossible : tracker d'innovations partagé");
+        }
+        long start = System.nanoTime();
+        NeatCheckpoint state = new NeatCheckpoint(seed, inputCount, outputCount, generation, evaluations,
+                speciationRandom, reproducer.getRandom(), steadyStateRandom, innovationTracker,
+                population, species, bestOverallGenome);
+        checkpointBuffer = state.save(file, checkpointBuffer, NeatConfig.CHECKPOINT_SYNC);
+        lastCheckpointBytes = checkpointBuffer.limit();
+        lastCheckpointNanos = System.nanoTime() - start;
+    }
+
+    // Taille (octets) et durée (ns) du dernier point de sauvegarde écrit
+    public long getLastCheckpointBytes() {
+        return lastCheckpointBytes;
+    }
+
+    public long getLastCheckpointNanos() {
+        return lastCheckpointNanos;
+    }
+
+    /**
+     * Évaluation interrompue (null = désactivée) : fitness (le même que fitnessFunction) calculé
+     * avec un seuil. Par générations, le seuil est le pire génome passé tel quel par la sélection
+     * (champions d'espèce, clones non mutés) ; en mode stationnaire, le pire individu au moment où
+     * l'enfant est créé. L'évaluation s'arrête dès que l'erreur cumulée montre qu'un enfant restera
+     * sous le seuil ; s'il restait des lignes, il reçoit un fitness partiel (majorant, jamais mis
+     * en cache).
+     */
+    public void setEarlyExit(BoundedFitnessFunction fitnessFunction) {
+        if (fitnessFunction != null && remote != null) {
+            throw new IllegalStateException("Évaluation interrompue non disponible avec des workers distants");
+        }
+        this.earlyExit = fitnessFunction;
+    }
+
+    // Évaluations interrompues depuis la création du moteur (repart de 0 après une reprise)
+    public long getPartialEvaluations() {
+        return partialEvaluations;
+    }
+
+    /**
+     * Une génération complète. Renvoie le bilan de la génération évaluée.
+     */
+    public GenerationStats step() {
+        GenerationStats stats = evaluate();
+        breed();
+        return stats;
+    }
+
+    public GenerationStats runUntil(Predicate<GenerationStats> stopCondition, int maxGenerations) {
+        return runUntil(stopCondition, maxGenerations, stats -> { });
+    }
+
+    /**
+     * Enchaîne les générations jusqu'à ce que stopCondition soit vraie ou que maxGenerations
+     * générations aient été évaluées. listener reçoit le bilan de chaque génération évaluée,
+     * avant le test d'arrêt. La dernière population évaluée est conservée (pas de breed()).
+     */
+    public GenerationStats runUntil(Predicate<GenerationStats> stopCondition, int maxGenerations,
+                                    Consumer<GenerationStats> listener) {
+        while (true) {
+            GenerationStats stats = evaluate();
+            listener.accept(stats);
+            if (stopCondition.test(stats) || stats.getGeneration() >= maxGenerations) {
+                return stats;
+            }
+            breed();
+        }
+    }
+
+    /**
+     * Mode stationnaire (rtNEAT) : pas de barrière de génération. Chaque enfant évalué remplace
+     * le pire individu (fitness ajusté le plus faible) ; l'espèce parente de l'enfant suivant est
+     * tirée proportionnellement à son fitness moyen. Le thread appelant produit les enfants et les
+     * intègre ; jusqu'à STEADY_STATE_PIPELINE_DEPTH enfants sont évalués en même temps sur le pool.
+     * Les enfants sont intégrés dans leur ordre de création : le résultat ne dépend pas du nombre
+     * de threads. Un bilan est publié tous les POPULATION_SIZE remplacements ("génération"),
+     * avec une spéciation complète (nouveaux représentants) ; mêmes conditions d'arrêt que runUntil().
+     */
+    public GenerationStats runSteadyState(Predicate<GenerationStats> stopCondition, int maxGenerations,
+                                          Consumer<GenerationStats> listener) {
+        GenerationStats stats = evaluate();
+        listener.accept(stats);
+        if (stopCondition.test(stats) || stats.getGeneration() >= maxGenerations) {
+            return stats;
+        }
+
+        int populationSize = population.size();
+        ArrayDeque<PendingChild> pipeline = new ArrayDeque<>();
+        RandomGenerator previous = RandomStreams.set(steadyStateRandom);
+        try {
+            respeciate();
+            lastStats = null;
+            int replacements = 0;
+
+            while (true) {
+                while (pipeline.size() < NeatConfig.STEADY_STATE_PIPELINE_DEPTH) {
+                    pipeline.add(submit(createSteadyStateOffspring()));
+                }
+                NeatGenome child = pipeline.poll().await();
+                if (child.isPartialFitness()) partialEvaluations++;
+                replaceWorst(child);
+                countEvaluations(1);
+
+                if (++replacements % populationSize != 0) continue;
+
+                generation++;
+                stats = snapshot(0.0);
+                lastStats = stats;
+                listener.accept(stats);
+                if (stopCondition.test(stats) || stats.getGeneration() >= maxGenerations) {
+                    return stats;
+                }
+                lastStats = null;
+
+                // Entretien périodique : nouveaux représentants, innovations
+                respeciate();
+                if (!maintainTracker) continue;
+                innovationTracker.startGeneration();
+                if (NeatConfig.INNOVATION_COMPACTION_INTERVAL > 0 && generation % NeatConfig.INNOVATION_COMPACTION_INTERVAL == 0) {
+                    // Les enfants en cours d'évaluation portent aussi des innovations vivantes
+                    List<NeatGenome> living = new ArrayList<>(population);
+                    for (PendingChild pending : pipeline) living.add(pending.genome);
+                    innovationTracker.compact(living);
+                }
+            }
+        } finally {
+            for (PendingChild pending : pipeline) pending.cancel();
+            RandomStreams.set(previous);
+        }
+    }
+
+    // Enfant d'une espèce tirée proportionnellement à son fitness moyen (= total ajusté)
+    private NeatGenome createSteadyStateOffspring() {
+        RandomGenerator random = RandomStreams.current();
+        double total = 0.0;
+        for (Species s : species) total += s.getTotalAdjustedFitness();
+
+        Species parent = species.get(species.size() - 1);
+        if (total > 0) {
+            double pick = random.nextDouble() * total;
+            for (Species s : species) {
+                pick -= s.getTotalAdjustedFitness();
+                if (pick < 0) {
+                    parent = s;
+                    break;
+                }
+            }
+        } else {
+            parent = species.get(random.nextInt(species.size()));
+        }
+        return parent.createOffspring(config, innovationTracker);
+    }
+
+    // Retire l'individu de plus faible fitness ajusté puis insère l'enfant évalué dans une espèce
+    private void replaceWorst(NeatGenome child) {
+        Species worstSpecies = null;
+        NeatGenome worst = null;
+        for (Species s : species) {
+            for (NeatGenome member : s.getMembers()) {
+                if (worst == null || member.getAdjustedFitness() < worst.getAdjustedFitness()) {
+                    worst = member;
+                    worstSpecies = s;
+                }
+            }
+        }
+        worstSpecies.getMembers().remove(worst);
+        population.remove(worst);
+        if (worstSpecies.getMembers().isEmpty()) {
+            species.remove(worstSpecies);
+        } else {
+            worstSpecies.adjustFitness();
+        }
+
+        population.add(child);
+        Species home = null;
+        for (Species s : species) {
+            if (s.addMember(child, config)) {
+                home = s;
+                break;
+            }
+        }
+        if (home == null) {
+            home = new Species(child);
+            species.add(home);
+        }
+        home.adjustFitness();
+
+        if (bestOverallGenome == null || child.getFitness() > bestOverallGenome.getFitness()) {
+            bestOverallGenome = child.copy();
+        }
+    }
+
+    private void respeciate() {
+        speciate();
+        for (Species s : species) {
+            s.adjustFitness();
+        }
+    }
+
+    // Le seuil est fixé à la création de l'enfant : même résultat quel que soit le nombre de threads
+    private PendingChild submit(NeatGenome child) {
+        if (remote != null) return new PendingChild(child, remote.submit(List.of(child)), true, Double.NEGATIVE_INFINITY);
+        double cutoff = (earlyExit != null) ? worstCutoff() : Double.NEGATIVE_INFINITY;
+        if (pool == null) return new PendingChild(child, null, false, cutoff);
+        return new PendingChild(child, pool.submit(() -> evaluateChild(child, cutoff)), false, cutoff);
+    }
+
+    private void evaluateChild(NeatGenome child, double cutoff) {
+        if (earlyExit == null) {
+            child.setFitness(fitnessFunction.applyAsDouble(child));
+            return;
+        }
+        boolean[] interrupted = new boolean[1];
+        double fitness = earlyExit.applyAsDouble(child, cutoff, interrupted);
+        if (interrupted[0]) {
+            child.setPartialFitness(fitness);
+        } else {
+            child.setFitness(fitness);
+        }
+    }
+
+    // Enfant en cours d'évaluation (sans pool : évalué à l'intégration, même résultat)
+    private final class PendingChild {
+        final NeatGenome genome;
+        private final Future<?> future;
+        private final boolean remoteResult; // future donne alors le double[] des workers
+        private final double cutoff;
+
+        PendingChild(NeatGenome genome, Future<?> future, boolean remoteResult, double cutoff) {
+            this.genome = genome;
+            this.future = future;
+            this.remoteResult = remoteResult;
+            this.cutoff = cutoff;
+        }
+
+        NeatGenome await() {
+            if (future == null) {
+                evaluateChild(genome, cutoff);
+                return genome;
+            }
+            try {
+                Object result = future.get();
+                if (remoteResult) genome.setFitness(((double[]) result)[0]);
+                return genome;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Évaluation interrompue", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Erreur pendant l'évaluation", e.getCause());
+            }
+        }
+
+        void cancel() {
+            if (future != null) future.cancel(false);
+        }
+    }
+
+    /**
+     * Copies des count meilleurs génomes de la population évaluée (candidats à la migration).
+     */
+    List<NeatGenome> emigrants(int count) {
+        evaluate();
+        List<NeatGenome> migrants = new ArrayList<>(count);
+        for (int i = 0; i < Math.min(count, population.size()); i++) {
+            migrants.add(population.get(i).copy());
+        }
+        return migrants;
+    }
+
+    /**
+     * Remplace les pires génomes de la population évaluée par des copies des migrants
+     * (déjà évalués sur la même tâche : leur fitness est conservé).
+     */
+    void immigrate(List<NeatGenome> migrants) {
+        evaluate();
+        int count = Math.min(migrants.size(), population.size());
+        for (int i = 0; i < count; i++) {
+            NeatGenome migrant = migrants.get(i).copy();
+            population.set(population.size() - 1 - i, migrant);
+            if (migrant.getFitness() > bestOverallGenome.getFitness()) {
+                bestOverallGenome = migrant.copy();
+            }
+        }
+        population.sort(Collections.reverseOrder(Comparator.comparingDouble(NeatGenome::getFitness)));
+    }
+
+    private void speciate() {
+        // Vider les espèces et réassigner chaque génome (comparaisons en parallèle)
+        speciator.assign(population, species, config);
+
+        // Supprimer les espèces vides
+        species.removeIf(s -> s.getMembers().isEmpty());
+
+        // Préparer pour la reproduction (tri interne, choix du représentant)
+        for (Species s : species) {
+            s.prepareForReproduction(config);
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Nombre de générations évaluées
+    public int getGeneration() {
+        return generation;
+    }
+
+    public List<NeatGenome> getPopulation() {
+        return Collections.unmodifiableList(population);
+    }
+
+    public List<Species> getSpecies() {
+        return Collections.unmodifiableList(species);
+    }
+
+    // Meilleur génome depuis le début de l'exécution (copie), null avant la première évaluation
+    public NeatGenome getBestGenome() {
+        return bestOverallGenome;
+    }
+
+    public InnovationTracker getInnovationTracker() {
+        return innovationTracker;
+    }
+
+    @Override
+    public void close() {
+        evaluator.close();
+        speciator.close();
+        if (pool != null && ownsPool) pool.shutdown();
+    }
+}
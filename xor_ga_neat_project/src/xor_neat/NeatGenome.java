@@ -1,42 +1,70 @@
 package xor_neat;
 
+import xor_common.RandomStreams;
+
 import java.util.*;
+import java.util.function.IntUnaryOperator;
+import java.util.random.RandomGenerator;
 
 public class NeatGenome {
 
-    private static final Random RANDOM = new Random();
+    // Flux aléatoire du thread courant (flux dédié à l'enfant pendant la reproduction parallèle)
+    private static RandomGenerator random() {
+        return RandomStreams.current();
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Nœuds : tableaux parallèles, dans l'ordre d'insertion
+    private int nodeCount = 0;
+    private int[] nodeIds = new int[INITIAL_CAPACITY];
+    private NodeGene.NodeType[] nodeTypes = new NodeGene.NodeType[INITIAL_CAPACITY];
+    private double[] nodeBiases = new double[INITIAL_CAPACITY];
 
-    private final Map<Integer, NodeGene> nodes = new HashMap<>();
-    // TreeMap assure que les gènes sont triés par innovation pour le crossover/distance
-    private final Map<Integer, ConnectionGene> connections = new TreeMap<>();
+    // Connexions : tableaux parallèles triés par innovation (merge-join pour le crossover/distance)
+    private int connectionCount = 0;
+    private int[] innovations = new int[INITIAL_CAPACITY];
+    private int[] inNodes = new int[INITIAL_CAPACITY];
+    private int[] outNodes = new int[INITIAL_CAPACITY];
+    private double[] weights = new double[INITIAL_CAPACITY];
+    private BitSet enabled = new BitSet();
+
+    // Index d'adjacence + ordre topologique, construit à la première mutation structurelle
+    private TopologyIndex topology;
 
     private double fitness = 0.0;
     private double adjustedFitness = 0.0;
 
+    // Dirty : le fitness n'est plus à jour (nouveau génome, mutation, crossover)
+    private boolean dirty = true;
+    // Fitness partiel : évaluation interrompue sous le seuil, le fitness n'est qu'un majorant
+    private boolean partialFitness = false;
+    private long contentHash;
+    private boolean contentHashValid = false;
+
     /**
      * Constructeur initial
      */
-    public NeatGenome(int inputCount, int outputCount, InnovationTracker tracker) {
+    public NeatGenome(int inputCount, int outputCount, InnovationSource tracker) {
         // Inputs
         for (int i = 0; i < inputCount; i++) {
-            nodes.put(i, new NodeGene(i, NodeGene.NodeType.INPUT, 0.0));
+            addNode(i, NodeGene.NodeType.INPUT, 0.0);
         }
         // Biais (fixe à 1.0)
-        nodes.put(inputCount, new NodeGene(inputCount, NodeGene.NodeType.BIAS, 1.0));
+        addNode(inputCount, NodeGene.NodeType.BIAS, 1.0);
 
         // Outputs
         for (int i = 0; i < outputCount; i++) {
-            int nodeId = inputCount + 1 + i;
-            nodes.put(nodeId, new NodeGene(nodeId, NodeGene.NodeType.OUTPUT, 0.0));
+            addNode(inputCount + 1 + i, NodeGene.NodeType.OUTPUT, 0.0);
         }
 
         // Connexions initiales complètes
         for (int i = 0; i <= inputCount; i++) {
             for (int j = 0; j < outputCount; j++) {
                 int outNodeId = inputCount + 1 + j;
-                double initialWeight = RANDOM.nextDouble() * 2 - 1;
+                double initialWeight = random().nextDouble() * 2 - 1;
                 int innovation = tracker.getInnovation(i, outNodeId);
-                connections.put(innovation, new ConnectionGene(innovation, i, outNodeId, initialWeight, true));
+                putConnection(innovation, i, outNodeId, initialWeight, true);
             }
         }
     }
@@ -47,7 +75,31 @@ public class NeatGenome {
     private NeatGenome() { }
 
     /**
-     * Crossover standard NEAT
+     * Génome reconstruit à partir de ses gènes (décodage binaire, voir GenomeCodec).
+     * Les tableaux sont repris tels quels ; les connexions doivent être triées par innovation.
+     */
+    static NeatGenome fromGenes(int nodeCount, int[] nodeIds, NodeGene.NodeType[] nodeTypes, double[] nodeBiases,
+                                int connectionCount, int[] innovations, int[] inNodes, int[] outNodes,
+                                double[] weights, BitSet enabled) {
+        NeatGenome genome = new NeatGenome();
+        int nodeCapacity = Math.max(nodeCount, INITIAL_CAPACITY);
+        genome.nodeCount = nodeCount;
+        genome.nodeIds = (nodeIds.length >= nodeCapacity) ? nodeIds : Arrays.copyOf(nodeIds, nodeCapacity);
+        genome.nodeTypes = (nodeTypes.length >= nodeCapacity) ? nodeTypes : Arrays.copyOf(nodeTypes, nodeCapacity);
+        genome.nodeBiases = (nodeBiases.length >= nodeCapacity) ? nodeBiases : Arrays.copyOf(nodeBiases, nodeCapacity);
+
+        int connectionCapacity = Math.max(connectionCount, INITIAL_CAPACITY);
+        genome.connectionCount = connectionCount;
+        genome.innovations = (innovations.length >= connectionCapacity) ? innovations : Arrays.copyOf(innovations, connectionCapacity);
+        genome.inNodes = (inNodes.length >= connectionCapacity) ? inNodes : Arrays.copyOf(inNodes, connectionCapacity);
+        genome.outNodes = (outNodes.length >= connectionCapacity) ? outNodes : Arrays.copyOf(outNodes, connectionCapacity);
+        genome.weights = (weights.length >= connectionCapacity) ? weights : Arrays.copyOf(weights, connectionCapacity);
+        genome.enabled = enabled;
+        return genome;
+    }
+
+    /**
+     * Crossover standard NEAT (merge-join sur les innovations triées)
      */
     public static NeatGenome crossover(NeatGenome parent1, NeatGenome parent2) {
         NeatGenome fitter = (parent1.getFitness() >= parent2.getFitness()) ? parent1 : parent2;
@@ -56,25 +108,34 @@ public class NeatGenome {
         NeatGenome child = new NeatGenome();
 
         // Copie des nœuds du parent le plus fort
-        for (NodeGene node : fitter.getNodes().values()) {
-            child.nodes.put(node.id, node.copy());
-        }
-
-        // Copie des connexions
-        for (ConnectionGene connFitter : fitter.getConnections().values()) {
-            ConnectionGene connLessFit = lessFit.getConnections().get(connFitter.innovation);
-
-            if (connLessFit != null) {
+        child.copyNodesFrom(fitter);
+
+        // Copie des connexions : l'enfant a exactement les gènes du fitter, dans le même ordre
+        int count = fitter.connectionCount;
+        child.ensureConnectionCapacity(count);
+        System.arraycopy(fitter.innovations, 0, child.innovations, 0, count);
+        System.arraycopy(fitter.inNodes, 0, child.inNodes, 0, count);
+        System.arraycopy(fitter.outNodes, 0, child.outNodes, 0, count);
+        System.arraycopy(fitter.weights, 0, child.weights, 0, count);
+        child.enabled = (BitSet) fitter.enabled.clone();
+        child.connectionCount = count;
+
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            int innovation = fitter.innovations[i];
+            while (j < lessFit.connectionCount && lessFit.innovations[j] < innovation) j++;
+
+            if (j < lessFit.connectionCount && lessFit.innovations[j] == innovation) {
                 // Gène commun : héritage aléatoire + gestion enable
-                ConnectionGene childGene = (RANDOM.nextBoolean()) ? connFitter.copy() : connLessFit.copy();
-                if (!connFitter.enabled || !connLessFit.enabled) {
-                    if (RANDOM.nextDouble() < 0.75) childGene.enabled = false;
+                if (!random().nextBoolean()) {
+                    child.weights[i] = lessFit.weights[j];
+                    child.enabled.set(i, lessFit.enabled.get(j));
+                }
+                if (!fitter.enabled.get(i) || !lessFit.enabled.get(j)) {
+                    if (random().nextDouble() < 0.75) child.enabled.clear(i);
                 }
-                child.connections.put(childGene.innovation, childGene);
-            } else {
-                // Gène excédentaire/disjoint : on hérite du fitter
-                child.connections.put(connFitter.innovation, connFitter.copy());
             }
+            // Gène excédentaire/disjoint : on hérite du fitter (déjà copié)
         }
         return child;
     }
@@ -88,41 +149,33 @@ public class NeatGenome {
         double weightDiff = 0.0;
         int matching = 0;
 
-        var iter1 = this.connections.values().iterator();
-        var iter2 = other.connections.values().iterator();
-
-        ConnectionGene conn1 = iter1.hasNext() ? iter1.next() : null;
-        ConnectionGene conn2 = iter2.hasNext() ? iter2.next() : null;
-
-        while (conn1 != null || conn2 != null) {
-            if (conn1 == null) {
-                excess++;
-                conn2 = iter2.hasNext() ? iter2.next() : null;
-            } else if (conn2 == null) {
-                excess++;
-                conn1 = iter1.hasNext() ? iter1.next() : null;
+        int i = 0, j = 0;
+        int count1 = this.connectionCount, count2 = other.connectionCount;
+        int[] inn1 = this.innovations, inn2 = other.innovations;
+
+        while (i < count1 && j < count2) {
+            if (inn1[i] == inn2[j]) {
+                matching++;
+                weightDiff += Math.abs(this.weights[i] - other.weights[j]);
+                i++;
+                j++;
+            } else if (inn1[i] < inn2[j]) {
+                disjoint++;
+                i++;
             } else {
-                if (conn1.innovation == conn2.innovation) {
-                    matching++;
-                    weightDiff += Math.abs(conn1.weight - conn2.weight);
-                    conn1 = iter1.hasNext() ? iter1.next() : null;
-                    conn2 = iter2.hasNext() ? iter2.next() : null;
-                } else if (conn1.innovation < conn2.innovation) {
-                    disjoint++;
-                    conn1 = iter1.hasNext() ? iter1.next() : null;
-                } else {
-                    disjoint++;
-                    conn2 = iter2.hasNext() ? iter2.next() : null;
-                }
+                disjoint++;
+                j++;
             }
         }
+        // Gènes restants d'un seul côté : excédentaires
+        excess += (count1 - i) + (count2 - j);
 
         double avgWeightDiff = (matching == 0) ? 0 : weightDiff / matching;
 
 
         // On normalise par la taille du génome SEULEMENT si le génome est grand (>20).
         // Pour XOR, N restera souvent à 1, ce qui est correct.
-        int maxSize = Math.max(this.connections.size(), other.connections.size());
+        int maxSize = Math.max(count1, count2);
         double N = (maxSize < 20) ? 1.0 : maxSize;
 
         return (config.C1_EXCESS * excess / N) +
@@ -132,161 +185,456 @@ public class NeatGenome {
 
     // --- MUTATIONS ---
 
-    public void mutate(NeatConfig config, InnovationTracker tracker) {
+    public void mutate(NeatConfig config, InnovationSource tracker) {
         // Poids
-        if (RANDOM.nextDouble() < config.MUTATE_WEIGHT_RATE) mutateWeights(config);
+        if (random().nextDouble() < config.MUTATE_WEIGHT_RATE) mutateWeights(config);
 
         // Biais (CRUCIAL POUR XOR)
         // Assure-toi d'avoir MUTATE_NODE_BIAS_RATE dans NeatConfig (ex: 0.1)
         // Si tu ne l'as pas, remplace config.MUTATE_NODE_BIAS_RATE par 0.1 ici.
-        if (RANDOM.nextDouble() < 0.1) mutateNodeBias(config);
+        if (random().nextDouble() < 0.1) mutateNodeBias(config);
 
         // Ajout Nœud
-        if (RANDOM.nextDouble() < config.MUTATE_ADD_NODE_RATE) mutateAddNode(tracker);
+        if (random().nextDouble() < config.MUTATE_ADD_NODE_RATE) mutateAddNode(tracker);
 
         // Ajout Connexion
-        if (RANDOM.nextDouble() < config.MUTATE_ADD_CONNECTION_RATE) mutateAddConnection(tracker);
+        if (random().nextDouble() < config.MUTATE_ADD_CONNECTION_RATE) mutateAddConnection(tracker);
 
         // Toggle
-        if (RANDOM.nextDouble() < config.MUTATE_TOGGLE_ENABLE_RATE) mutateToggleEnable();
+        if (random().nextDouble() < config.MUTATE_TOGGLE_ENABLE_RATE) mutateToggleEnable();
     }
 
     private void mutateWeights(NeatConfig config) {
-        for (ConnectionGene conn : connections.values()) {
-            if (RANDOM.nextDouble() < config.WEIGHT_PERTURB_RATE) {
-                conn.weight += (RANDOM.nextGaussian() * config.WEIGHT_PERTURB_STD_DEV);
+        if (connectionCount > 0) markDirty();
+        for (int i = 0; i < connectionCount; i++) {
+            if (random().nextDouble() < config.WEIGHT_PERTURB_RATE) {
+                weights[i] += (random().nextGaussian() * config.WEIGHT_PERTURB_STD_DEV);
             } else {
-                conn.weight = RANDOM.nextDouble() * 4 - 2;
+                weights[i] = random().nextDouble() * 4 - 2;
             }
         }
     }
 
     private void mutateNodeBias(NeatConfig config) {
-        for (NodeGene node : nodes.values()) {
+        for (int i = 0; i < nodeCount; i++) {
             // On ne touche pas aux inputs bruts ni au Bias Node (ID 2)
-            if (node.type == NodeGene.NodeType.INPUT || node.type == NodeGene.NodeType.BIAS) continue;
+            if (nodeTypes[i] == NodeGene.NodeType.INPUT || nodeTypes[i] == NodeGene.NodeType.BIAS) continue;
 
             // Même logique que poids
-            if (RANDOM.nextDouble() < config.WEIGHT_PERTURB_RATE) {
+            if (random().nextDouble() < config.WEIGHT_PERTURB_RATE) {
                 // Utilise un écart type de 0.2 par défaut si non défini
-                node.bias += (RANDOM.nextGaussian() * 0.2);
+                nodeBiases[i] += (random().nextGaussian() * 0.2);
+                markDirty();
             } else {
-                node.bias = RANDOM.nextDouble() * 4 - 2;
+                nodeBiases[i] = random().nextDouble() * 4 - 2;
+                markDirty();
             }
         }
     }
 
-    private void mutateAddNode(InnovationTracker tracker) {
-        if (connections.isEmpty()) return;
+    void mutateAddNode(InnovationSource tracker) {
+        if (connectionCount == 0) return;
 
         // Trouve une connexion active
-        List<ConnectionGene> possibleConns = new ArrayList<>();
-        for(ConnectionGene c : connections.values()) if(c.enabled) possibleConns.add(c);
-        if (possibleConns.isEmpty()) return;
+        int enabledCount = enabled.cardinality();
+        if (enabledCount == 0) return;
+
+        int pick = random().nextInt(enabledCount);
+        int oldIndex = enabled.nextSetBit(0);
+        for (int k = 0; k < pick; k++) oldIndex = enabled.nextSetBit(oldIndex + 1);
+        enabled.clear(oldIndex); // Désactive l'ancienne
+        markDirty();
 
-        ConnectionGene oldConn = possibleConns.get(RANDOM.nextInt(possibleConns.size()));
-        oldConn.enabled = false; // Désactive l'ancienne
+        // Les index bougent lors des insertions : on garde les valeurs utiles
+        int oldInnovation = innovations[oldIndex];
+        int oldIn = inNodes[oldIndex];
+        int oldOut = outNodes[oldIndex];
+        double oldWeight = weights[oldIndex];
 
-        int newNodeId = tracker.getNewNodeId(oldConn.innovation);
+        topology();
+        int newNodeId = tracker.getNewNodeId(oldInnovation);
 
         // Si le nœud est nouveau, on l'initialise avec 0.0 bias (sera muté plus tard)
-        if (!nodes.containsKey(newNodeId)) {
-            nodes.put(newNodeId, new NodeGene(newNodeId, NodeGene.NodeType.HIDDEN, 0.0));
+        if (indexOfNode(newNodeId) < 0) {
+            addNode(newNodeId, NodeGene.NodeType.HIDDEN, 0.0);
         }
 
-        int inToNewInn = tracker.getInnovation(oldConn.inNodeId, newNodeId);
-        int newToOutInn = tracker.getInnovation(newNodeId, oldConn.outNodeId);
+        int inToNewInn = tracker.getInnovation(oldIn, newNodeId);
+        int newToOutInn = tracker.getInnovation(newNodeId, oldOut);
 
-        connections.put(inToNewInn, new ConnectionGene(inToNewInn, oldConn.inNodeId, newNodeId, 1.0, true));
-        connections.put(newToOutInn, new ConnectionGene(newToOutInn, newNodeId, oldConn.outNodeId, oldConn.weight, true));
+        putConnection(inToNewInn, oldIn, newNodeId, 1.0, true);
+        putConnection(newToOutInn, newNodeId, oldOut, oldWeight, true);
     }
 
-    private void mutateAddConnection(InnovationTracker tracker) {
-        List<NodeGene> nodeValues = new ArrayList<>(nodes.values());
+    void mutateAddConnection(InnovationSource tracker) {
+        TopologyIndex topology = topology();
 
         for (int i = 0; i < 20; i++) { // 20 tentatives
-            NodeGene node1 = nodeValues.get(RANDOM.nextInt(nodeValues.size()));
-            NodeGene node2 = nodeValues.get(RANDOM.nextInt(nodeValues.size()));
+            int node1 = random().nextInt(nodeCount);
+            int node2 = random().nextInt(nodeCount);
 
             // Règles de validité basiques
-            if (node1.type == NodeGene.NodeType.OUTPUT) continue;
-            if (node2.type == NodeGene.NodeType.INPUT || node2.type == NodeGene.NodeType.BIAS) continue;
-            if (node1.id == node2.id) continue;
-
-            // Vérifie si la connexion existe déjà
-            boolean exists = false;
-            for (ConnectionGene conn : connections.values()) {
-                if (conn.inNodeId == node1.id && conn.outNodeId == node2.id) {
-                    exists = true;
-                    break;
-                }
-            }
-            if (exists) continue;
+            if (nodeTypes[node1] == NodeGene.NodeType.OUTPUT) continue;
+            if (nodeTypes[node2] == NodeGene.NodeType.INPUT || nodeTypes[node2] == NodeGene.NodeType.BIAS) continue;
+            if (node1 == node2) continue;
+
+            // Vérifie si la connexion existe déjà (ensemble d'arêtes, O(1))
+            if (topology.hasEdge(node1, node2)) continue;
 
             // --- DETECTION DE CYCLES ---
             // Si ajouter cette connexion crée une boucle, on abandonne immédiatement.
             // Sinon le réseau plante et renvoie 0.0000.
-            if (createsCycle(node1.id, node2.id)) {
+            // L'ordre topologique incrémental répond en O(1) quand l'arête le respecte déjà,
+            // sinon seule la zone entre les deux nœuds est parcourue (et réordonnée).
+            if (!topology.tryAddEdge(node1, node2)) {
                 continue;
             }
 
-            int inn = tracker.getInnovation(node1.id, node2.id);
-            connections.put(inn, new ConnectionGene(inn, node1.id, node2.id, RANDOM.nextDouble() * 2 - 1, true));
+            int id1 = nodeIds[node1];
+            int id2 = nodeIds[node2];
+            int inn = tracker.getInnovation(id1, id2);
+            putConnection(inn, id1, id2, random().nextDouble() * 2 - 1, true);
             return; // Succès
         }
     }
 
+    private void mutateToggleEnable() {
+        if (connectionCount == 0) return;
+        enabled.flip(random().nextInt(connectionCount));
+        markDirty();
+    }
+
+    // --- Stockage en tableaux ---
+
+    private void addNode(int id, NodeGene.NodeType type, double bias) {
+        if (nodeCount == nodeIds.length) {
+            int capacity = nodeCount * 2;
+            nodeIds = Arrays.copyOf(nodeIds, capacity);
+            nodeTypes = Arrays.copyOf(nodeTypes, capacity);
+            nodeBiases = Arrays.copyOf(nodeBiases, capacity);
+        }
+        nodeIds[nodeCount] = id;
+        nodeTypes[nodeCount] = type;
+        nodeBiases[nodeCount] = bias;
+        nodeCount++;
+        markDirty();
+        if (topology != null) topology.addNode(id);
+    }
+
+    private int indexOfNode(int id) {
+        if (topology != null) return topology.slotOf(id);
+        for (int i = 0; i < nodeCount; i++) {
+            if (nodeIds[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private TopologyIndex topology() {
+        if (topology == null) topology = TopologyIndex.build(this);
+        return topology;
+    }
+
+    private void copyNodesFrom(NeatGenome source) {
+        nodeIds = Arrays.copyOf(source.nodeIds, Math.max(source.nodeCount, INITIAL_CAPACITY));
+        nodeTypes = Arrays.copyOf(source.nodeTypes, nodeIds.length);
+        nodeBiases = Arrays.copyOf(source.nodeBiases, nodeIds.length);
+        nodeCount = source.nodeCount;
+    }
+
+    private void ensureConnectionCapacity(int capacity) {
+        if (capacity <= innovations.length) return;
+        int newCapacity = Math.max(capacity, innovations.length * 2);
+        innovations = Arrays.copyOf(innovations, newCapacity);
+        inNodes = Arrays.copyOf(inNodes, newCapacity);
+        outNodes = Arrays.copyOf(outNodes, newCapacity);
+        weights = Arrays.copyOf(weights, newCapacity);
+    }
+
     /**
-     * Vérifie si ajouter une connexion de sourceId -> targetId crée un cycle.
-     * Utilise un parcours DFS.
+     * Insère (ou remplace) une connexion en gardant le tri par innovation.
+     * IllegalStateException si la nouvelle arête fermerait un cycle (le génome reste inchangé).
      */
-    private boolean createsCycle(int sourceId, int targetId) {
-        // Si targetId peut déjà atteindre sourceId, alors ajouter sourceId->targetId fermera la boucle.
-        if (sourceId == targetId) return true;
-
-        Set<Integer> visited = new HashSet<>();
-        Stack<Integer> stack = new Stack<>();
-        stack.push(targetId);
-        visited.add(targetId);
-
-        while (!stack.isEmpty()) {
-            int current = stack.pop();
-            if (current == sourceId) return true; // Cycle trouvé
-
-            for (ConnectionGene conn : connections.values()) {
-                // On suit le chemin même si la connexion est désactivée (structurellement risqué)
-                if (conn.inNodeId == current) {
-                    if (!visited.contains(conn.outNodeId)) {
-                        visited.add(conn.outNodeId);
-                        stack.push(conn.outNodeId);
-                    }
-                }
+    private void putConnection(int innovation, int in, int out, double weight, boolean isEnabled) {
+        int index = Arrays.binarySearch(innovations, 0, connectionCount, innovation);
+        if (index < 0) {
+            // L'index topologique d'abord : une arête qui fermerait un cycle est refusée, génome inchangé
+            if (topology != null && !topology.tryAddEdge(indexOfNode(in), indexOfNode(out))) {
+                throw new IllegalStateException("Connexion " + in + " -> " + out + " refusée : elle fermerait un cycle");
             }
+            index = -index - 1;
+            ensureConnectionCapacity(connectionCount + 1);
+            int tail = connectionCount - index;
+            if (tail > 0) {
+                System.arraycopy(innovations, index, innovations, index + 1, tail);
+                System.arraycopy(inNodes, index, inNodes, index + 1, tail);
+                System.arraycopy(outNodes, index, outNodes, index + 1, tail);
+                System.arraycopy(weights, index, weights, index + 1, tail);
+                for (int k = connectionCount; k > index; k--) enabled.set(k, enabled.get(k - 1));
+            }
+            connectionCount++;
         }
-        return false;
+        innovations[index] = innovation;
+        inNodes[index] = in;
+        outNodes[index] = out;
+        weights[index] = weight;
+        enabled.set(index, isEnabled);
+        markDirty();
     }
 
-    private void mutateToggleEnable() {
-        if (connections.isEmpty()) return;
-        List<ConnectionGene> allConns = new ArrayList<>(connections.values());
-        ConnectionGene conn = allConns.get(RANDOM.nextInt(allConns.size()));
-        conn.enabled = !conn.enabled;
+    /**
+     * Renumérote les nœuds et les innovations (identifiants provisoires de la reproduction
+     * parallèle, voir ProvisionalInnovations), puis rétablit le tri par innovation.
+     */
+    void renumber(IntUnaryOperator nodeIdMap, IntUnaryOperator innovationMap) {
+        for (int i = 0; i < nodeCount; i++) {
+            nodeIds[i] = nodeIdMap.applyAsInt(nodeIds[i]);
+        }
+        for (int i = 0; i < connectionCount; i++) {
+            innovations[i] = innovationMap.applyAsInt(innovations[i]);
+            inNodes[i] = nodeIdMap.applyAsInt(inNodes[i]);
+            outNodes[i] = nodeIdMap.applyAsInt(outNodes[i]);
+        }
+
+        // Tri par insertion (seule la fin, les nouvelles connexions, est en désordre)
+        for (int i = 1; i < connectionCount; i++) {
+            int innovation = innovations[i];
+            int in = inNodes[i];
+            int out = outNodes[i];
+            double weight = weights[i];
+            boolean isEnabled = enabled.get(i);
+            int j = i - 1;
+            while (j >= 0 && innovations[j] > innovation) {
+                innovations[j + 1] = innovations[j];
+                inNodes[j + 1] = inNodes[j];
+                outNodes[j + 1] = outNodes[j];
+                weights[j + 1] = weights[j];
+                enabled.set(j + 1, enabled.get(j));
+                j--;
+            }
+            innovations[j + 1] = innovation;
+            inNodes[j + 1] = in;
+            outNodes[j + 1] = out;
+            weights[j + 1] = weight;
+            enabled.set(j + 1, isEnabled);
+        }
+
+        topology = null; // Les IDs ont changé : l'index sera reconstruit à la demande
+        markDirty();
     }
 
     // Getters & Setters
-    public Map<Integer, NodeGene> getNodes() { return nodes; }
-    public Map<Integer, ConnectionGene> getConnections() { return connections; }
+
+    /**
+     * Vue en lecture seule des nœuds (les NodeGene renvoyés sont des instantanés).
+     */
+    public Map<Integer, NodeGene> getNodes() { return new NodeView(); }
+
+    /**
+     * Vue en lecture seule des connexions, triée par innovation
+     * (les ConnectionGene renvoyés sont des instantanés).
+     */
+    public Map<Integer, ConnectionGene> getConnections() { return new ConnectionView(); }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getNodeId(int index) { return nodeIds[index]; }
+    public NodeGene.NodeType getNodeType(int index) { return nodeTypes[index]; }
+    public double getNodeBias(int index) { return nodeBiases[index]; }
+
+    public int getConnectionCount() { return connectionCount; }
+    public int getInnovation(int index) { return innovations[index]; }
+    public int getInNode(int index) { return inNodes[index]; }
+    public int getOutNode(int index) { return outNodes[index]; }
+    public double getWeight(int index) { return weights[index]; }
+    public boolean isEnabled(int index) { return enabled.get(index); }
+
     public double getFitness() { return fitness; }
-    public void setFitness(double fitness) { this.fitness = fitness; }
+    public void setFitness(double fitness) {
+        this.fitness = fitness;
+        this.dirty = false;
+        this.partialFitness = false;
+    }
+
+    /**
+     * Fitness d'une évaluation interrompue (voir BoundedFitnessFunction) : majorant du vrai fitness.
+     */
+    public void setPartialFitness(double fitness) {
+        this.fitness = fitness;
+        this.dirty = false;
+        this.partialFitness = true;
+    }
+
+    /**
+     * Vrai si le fitness vient d'une évaluation interrompue sous le seuil (majorant seulement).
+     */
+    public boolean isPartialFitness() { return partialFitness; }
     public double getAdjustedFitness() { return adjustedFitness; }
     public void setAdjustedFitness(double fitness) { this.adjustedFitness = fitness; }
 
+    /**
+     * Vrai si le fitness doit être (re)calculé.
+     */
+    public boolean isDirty() { return dirty; }
+
+    // Reprise d'un point de sauvegarde : état d'évaluation tel qu'il était à l'écriture
+    void restoreFitness(double fitness, double adjustedFitness, boolean dirty, boolean partialFitness) {
+        this.fitness = fitness;
+        this.adjustedFitness = adjustedFitness;
+        this.dirty = dirty;
+        this.partialFitness = partialFitness;
+    }
+
+    private void markDirty() {
+        dirty = true;
+        partialFitness = false;
+        contentHashValid = false;
+    }
+
+    /**
+     * Hash 64 bits de tout ce qui détermine le fitness : nœuds (id, type, biais)
+     * et connexions (innovation, extrémités, poids, état). Clé du cache de fitness.
+     */
+    public long contentHash() {
+        if (contentHashValid) return contentHash;
+
+        // Nœuds : combinaison commutative (l'ordre d'insertion peut varier entre génomes identiques)
+        long nodesHash = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            long h = mix64(nodeIds[i] * 31L + nodeTypes[i].ordinal());
+            h = mix64(h ^ Double.doubleToLongBits(nodeBiases[i]));
+            nodesHash += h;
+        }
+
+        // Connexions : déjà triées par innovation
+        long h = mix64(nodesHash ^ connectionCount);
+        for (int i = 0; i < connectionCount; i++) {
+            h = mix64(h ^ (((long) innovations[i] << 32) | (inNodes[i] & 0xFFFFFFFFL)));
+            h = mix64(h ^ (((long) outNodes[i] << 1) | (enabled.get(i) ? 1 : 0)));
+            h = mix64(h ^ Double.doubleToLongBits(weights[i]));
+        }
+
+        contentHash = h;
+        contentHashValid = true;
+        return h;
+    }
+
+    // Finaliseur de SplitMix64
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     public NeatGenome copy() {
         NeatGenome newGenome = new NeatGenome();
-        for (NodeGene node : nodes.values()) newGenome.nodes.put(node.id, node.copy());
-        for (ConnectionGene conn : connections.values()) newGenome.connections.put(conn.innovation, conn.copy());
+        newGenome.copyNodesFrom(this);
+        int capacity = Math.max(connectionCount, INITIAL_CAPACITY);
+        newGenome.innovations = Arrays.copyOf(innovations, capacity);
+        newGenome.inNodes = Arrays.copyOf(inNodes, capacity);
+        newGenome.outNodes = Arrays.copyOf(outNodes, capacity);
+        newGenome.weights = Arrays.copyOf(weights, capacity);
+        newGenome.enabled = (BitSet) enabled.clone();
+        newGenome.connectionCount = connectionCount;
         newGenome.fitness = this.fitness;
         newGenome.adjustedFitness = this.adjustedFitness;
+        // Une copie non modifiée garde son fitness : pas de réévaluation (sauf fitness partiel,
+        // réévalué sans seuil par PopulationEvaluator)
+        newGenome.dirty = this.dirty;
+        newGenome.partialFitness = this.partialFitness;
+        newGenome.contentHash = this.contentHash;
+        newGenome.contentHashValid = this.contentHashValid;
         return newGenome;
     }
-}
\ No newline at end of file
+
+    // --- Vues Map sur les tableaux (compatibilité de l'API publique) ---
+
+    private class NodeView extends AbstractMap<Integer, NodeGene> {
+        @Override
+        public int size() { return nodeCount; }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && indexOfNode((Integer) key) >= 0;
+        }
+
+        @Override
+        public NodeGene get(Object key) {
+            if (!(key instanceof Integer)) return null;
+            int index = indexOfNode((Integer) key);
+            return (index < 0) ? null : new NodeGene(nodeIds[index], nodeTypes[index], nodeBiases[index]);
+        }
+
+        @Override
+        public Set<Entry<Integer, NodeGene>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() { return nodeCount; }
+
+                @Override
+                public Iterator<Entry<Integer, NodeGene>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() { return index < nodeCount; }
+
+                        @Override
+                        public Entry<Integer, NodeGene> next() {
+                            if (index >= nodeCount) throw new NoSuchElementException();
+                            NodeGene node = new NodeGene(nodeIds[index], nodeTypes[index], nodeBiases[index]);
+                            index++;
+                            return new SimpleImmutableEntry<>(node.id, node);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private class ConnectionView extends AbstractMap<Integer, ConnectionGene> {
+        @Override
+        public int size() { return connectionCount; }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer
+                    && Arrays.binarySearch(innovations, 0, connectionCount, (Integer) key) >= 0;
+        }
+
+        @Override
+        public ConnectionGene get(Object key) {
+            if (!(key instanceof Integer)) return null;
+            int index = Arrays.binarySearch(innovations, 0, connectionCount, (Integer) key);
+            return (index < 0) ? null : connectionAt(index);
+        }
+
+        @Override
+        public Set<Entry<Integer, ConnectionGene>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() { return connectionCount; }
+
+                @Override
+                public Iterator<Entry<Integer, ConnectionGene>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() { return index < connectionCount; }
+
+                        @Override
+                        public Entry<Integer, ConnectionGene> next() {
+                            if (index >= connectionCount) throw new NoSuchElementException();
+                            ConnectionGene conn = connectionAt(index++);
+                            return new SimpleImmutableEntry<>(conn.innovation, conn);
+                        }
+                    };
+                }
+            };
+        }
+
+        private ConnectionGene connectionAt(int index) {
+            return new ConnectionGene(innovations[index], inNodes[index], outNodes[index],
+                    weights[index], enabled.get(index));
+        }
+    }
+}
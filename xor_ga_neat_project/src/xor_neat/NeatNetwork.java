@@ -0,0 +1,308 @@
+package xor_neat;
+
+import xor_common.BatchModel;
+import xor_common.ColumnBatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Phénotype compilé d'un NeatGenome.
+ * Le génome est traduit une seule fois en tableaux plats (ordre topologique,
+ * indices des sources, poids, biais) : une activation devient une simple passe
+ * linéaire, sans HashMap ni boxing.
+ *
+ * activateBatch() évalue un bloc de lignes à la fois : chaque noeud est calculé pour toutes
+ * les lignes du bloc (boucles sur des tableaux contigus, vectorisées par le JIT), avec
+ * exactement les mêmes opérations, dans le même ordre, que activate() : résultats identiques
+ * (réseau sans cycle, ce que garantit la mutation d'ajout de connexion).
+ *
+ * Non thread-safe : les tampons des valeurs sont réutilisés d'une activation à l'autre.
+ */
+public final class NeatNetwork implements BatchModel {
+
+    // Slots des entrées (ordre croissant des ids), du biais et des sorties
+    private final int[] inputSlots;
+    private final int biasSlot;
+    private final int[] outputSlots;
+
+    // Noeuds calculés, dans l'ordre topologique.
+    // Les connexions entrantes de computeSlots[k] sont [incomingStart[k], incomingStart[k + 1]).
+    private final int[] computeSlots;
+    private final int[] incomingStart;
+    private final int[] sources;
+    private final double[] weights;
+    private final double[] biases;
+
+    // Tampon des valeurs (un par noeud). Les noeuds jamais calculés restent à 0.0.
+    private final double[] values;
+    // Idem pour activateBatch() : blockWidth (<= BLOCK_ROWS) valeurs par noeud, alloué au premier lot
+    private double[][] blockValues;
+    private int blockWidth = 0;
+
+    private NeatNetwork(int[] inputSlots, int biasSlot, int[] outputSlots, int[] computeSlots,
+                        int[] incomingStart, int[] sources, double[] weights, double[] biases, int nodeCount) {
+        this.inputSlots = inputSlots;
+        this.biasSlot = biasSlot;
+        this.outputSlots = outputSlots;
+        this.computeSlots = computeSlots;
+        this.incomingStart = incomingStart;
+        this.sources = sources;
+        this.weights = weights;
+        this.biases = biases;
+        this.values = new double[nodeCount];
+    }
+
+    /**
+     * Compile un génome en réseau évaluable.
+     * Seuls les noeuds ayant au moins une connexion entrante active sont calculés
+     * (les autres valent 0.0, comme dans l'ancienne relaxation).
+     */
+    public static NeatNetwork compile(NeatGenome genome) {
+        // 1. Un slot par noeud (index dans les tableaux du génome)
+        int nodeCount = genome.getNodeCount();
+        // Table (id << 32 | slot) triée : résolution id -> slot par recherche dichotomique
+        long[] slotById = new long[nodeCount];
+        for (int slot = 0; slot < nodeCount; slot++) {
+            slotById[slot] = ((long) genome.getNodeId(slot) << 32) | slot;
+        }
+        Arrays.sort(slotById);
+
+        List<Integer> inputs = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        int biasSlot = -1;
+        double[] nodeBias = new double[nodeCount];
+        for (int slot = 0; slot < nodeCount; slot++) {
+            NodeGene.NodeType type = genome.getNodeType(slot);
+            nodeBias[slot] = genome.getNodeBias(slot);
+            if (type == NodeGene.NodeType.INPUT) inputs.add(slot);
+            else if (type == NodeGene.NodeType.BIAS) biasSlot = slot;
+            else if (type == NodeGene.NodeType.OUTPUT) outputs.add(slot);
+        }
+        // Entrées et sorties dans l'ordre croissant des ids
+        inputs.sort(Comparator.comparingInt(genome::getNodeId));
+        outputs.sort(Comparator.comparingInt(genome::getNodeId));
+
+        // 2. Connexions entrantes actives par noeud cible (ordre d'innovation conservé
+        //    pour que les sommes soient identiques bit à bit à l'ancienne relaxation)
+        int connectionCount = genome.getConnectionCount();
+        int[] connSource = new int[connectionCount];
+        int[] connTarget = new int[connectionCount];
+        int[] inDegree = new int[nodeCount];
+        int[] outDegree = new int[nodeCount];
+        int enabledCount = 0;
+        for (int c = 0; c < connectionCount; c++) {
+            connTarget[c] = -1;
+            if (!genome.isEnabled(c)) continue;
+            int target = findSlot(slotById, genome.getOutNode(c));
+            if (target < 0) continue;
+            int source = findSlot(slotById, genome.getInNode(c));
+            connTarget[c] = target;
+            connSource[c] = source;
+            inDegree[target]++;
+            if (source >= 0) outDegree[source]++;
+            enabledCount++;
+        }
+
+        int[] inStart = new int[nodeCount + 1];
+        for (int slot = 0; slot < nodeCount; slot++) inStart[slot + 1] = inStart[slot] + inDegree[slot];
+        int[] outStart = new int[nodeCount + 1];
+        for (int slot = 0; slot < nodeCount; slot++) outStart[slot + 1] = outStart[slot] + outDegree[slot];
+
+        // Source -1 = noeud absent du génome (contribue 0.0)
+        int[] inSources = new int[enabledCount];
+        double[] inWeights = new double[enabledCount];
+        int[] outTargets = new int[outStart[nodeCount]];
+        int[] inFill = Arrays.copyOf(inStart, nodeCount);
+        int[] outFill = Arrays.copyOf(outStart, nodeCount);
+        for (int c = 0; c < connectionCount; c++) {
+            int target = connTarget[c];
+            if (target < 0) continue;
+            int source = connSource[c];
+            int k = inFill[target]++;
+            inSources[k] = source;
+            inWeights[k] = genome.getWeight(c);
+            if (source >= 0) outTargets[outFill[source]++] = target;
+        }
+
+        // 3. Tri topologique (Kahn) sur les connexions actives
+        int[] pending = Arrays.copyOf(inDegree, nodeCount);
+        int[] queue = new int[nodeCount];
+        int head = 0, tail = 0;
+        for (int slot = 0; slot < nodeCount; slot++) {
+            if (pending[slot] == 0) queue[tail++] = slot;
+        }
+        // Les connexions depuis un noeud absent ne bloquent pas le tri
+        for (int slot = 0; slot < nodeCount; slot++) {
+            for (int k = inStart[slot]; k < inStart[slot + 1]; k++) {
+                if (inSources[k] < 0 && --pending[slot] == 0) queue[tail++] = slot;
+            }
+        }
+        boolean[] ordered = new boolean[nodeCount];
+        int[] order = new int[nodeCount];
+        int orderSize = 0;
+        while (head < tail) {
+            int slot = queue[head++];
+            ordered[slot] = true;
+            order[orderSize++] = slot;
+            for (int k = outStart[slot]; k < outStart[slot + 1]; k++) {
+                int target = outTargets[k];
+                if (--pending[target] == 0) queue[tail++] = target;
+            }
+        }
+        // Sécurité : un cycle (normalement impossible) est évalué dans l'ordre des slots
+        for (int slot = 0; slot < nodeCount; slot++) {
+            if (!ordered[slot]) order[orderSize++] = slot;
+        }
+
+        // 4. Aplatissement des noeuds calculés dans l'ordre topologique
+        int computeCount = 0;
+        for (int slot = 0; slot < nodeCount; slot++) if (inDegree[slot] > 0) computeCount++;
+
+        int[] computeSlots = new int[computeCount];
+        int[] incomingStart = new int[computeCount + 1];
+        int[] sources = new int[enabledCount];
+        double[] weights = new double[enabledCount];
+        double[] biases = new double[computeCount];
+        int c = 0, e = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            int slot = order[i];
+            if (inDegree[slot] == 0) continue;
+            computeSlots[c] = slot;
+            biases[c] = nodeBias[slot];
+            incomingStart[c] = e;
+            for (int k = inStart[slot]; k < inStart[slot + 1]; k++) {
+                sources[e] = inSources[k];
+                weights[e] = inWeights[k];
+                e++;
+            }
+            c++;
+        }
+        incomingStart[computeCount] = e;
+
+        return new NeatNetwork(
+                inputs.stream().mapToInt(Integer::intValue).toArray(), biasSlot,
+                outputs.stream().mapToInt(Integer::intValue).toArray(),
+                computeSlots, incomingStart, sources, weights, biases, nodeCount);
+    }
+
+    private static int findSlot(long[] slotById, int nodeId) {
+        int low = 0, high = slotById.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = (int) (slotById[mid] >> 32);
+            if (id < nodeId) low = mid + 1;
+            else if (id > nodeId) high = mid - 1;
+            else return (int) slotById[mid];
+        }
+        return -1;
+    }
+
+    /**
+     * Active le réseau pour une ligne d'entrée et renvoie la première sortie.
+     * input[i] alimente la i-ème entrée (ordre des ids) ; le biais vaut 1.0.
+     */
+    public double activate(double[] input) {
+        for (int i = 0; i < inputSlots.length; i++) values[inputSlots[i]] = input[i];
+        if (biasSlot >= 0) values[biasSlot] = 1.0;
+
+        for (int c = 0; c < computeSlots.length; c++) {
+            double sum = 0.0;
+            for (int k = incomingStart[c]; k < incomingStart[c + 1]; k++) {
+                int source = sources[k];
+                sum += ((source < 0) ? 0.0 : values[source]) * weights[k];
+            }
+            sum += biases[c];
+            values[computeSlots[c]] = sigmoid(sum);
+        }
+
+        return (outputSlots.length == 0) ? 0.0 : values[outputSlots[0]];
+    }
+
+    /**
+     * Active le réseau sur rows lignes : inputs[i][offset + r] alimente la i-ème entrée de la
+     * ligne r (disposition par colonnes, voir ColumnBatch) ; la première sortie de la ligne r
+     * est écrite dans output[r].
+     */
+    public void activateBatch(double[][] inputs, int offset, int rows, double[] output) {
+        int width = prepareBlocks(rows);
+        for (int start = 0; start < rows; start += width) {
+            int n = Math.min(width, rows - start);
+            activateBlock(inputs, offset + start, n);
+            if (outputSlots.length == 0) {
+                Arrays.fill(output, start, start + n, 0.0);
+            } else {
+                System.arraycopy(blockValues[outputSlots[0]], 0, output, start, n);
+            }
+        }
+    }
+
+    /**
+     * Comme activateBatch(), pour toutes les sorties : la sortie o (ordre des ids) de la ligne r
+     * est écrite dans outputs[o][r].
+     */
+    @Override
+    public void predict(double[][] inputs, int offset, int rows, double[][] outputs) {
+        int width = prepareBlocks(rows);
+        for (int start = 0; start < rows; start += width) {
+            int n = Math.min(width, rows - start);
+            activateBlock(inputs, offset + start, n);
+            for (int o = 0; o < outputs.length; o++) {
+                if (o < outputSlots.length) {
+                    System.arraycopy(blockValues[outputSlots[o]], 0, outputs[o], start, n);
+                } else {
+                    Arrays.fill(outputs[o], start, start + n, 0.0);
+                }
+            }
+        }
+    }
+
+    // Tampons des blocs ; renvoie la taille de bloc pour rows lignes
+    private int prepareBlocks(int rows) {
+        int width = Math.min(rows, ColumnBatch.BLOCK_ROWS);
+        if (width > blockWidth) {
+            blockValues = new double[values.length][width];
+            blockWidth = width;
+        }
+        return width;
+    }
+
+    // Un bloc de n <= BLOCK_ROWS lignes ; les valeurs des noeuds restent dans blockValues
+    private void activateBlock(double[][] inputs, int offset, int n) {
+        for (int i = 0; i < inputSlots.length; i++) {
+            System.arraycopy(inputs[i], offset, blockValues[inputSlots[i]], 0, n);
+        }
+        if (biasSlot >= 0) Arrays.fill(blockValues[biasSlot], 0, n, 1.0);
+
+        for (int c = 0; c < computeSlots.length; c++) {
+            double[] sum = blockValues[computeSlots[c]];
+            Arrays.fill(sum, 0, n, 0.0);
+            for (int k = incomingStart[c]; k < incomingStart[c + 1]; k++) {
+                int source = sources[k];
+                if (source < 0) continue; // Noeud absent : contribue 0.0, la somme ne change pas
+                double[] in = blockValues[source];
+                double weight = weights[k];
+                for (int r = 0; r < n; r++) {
+                    sum[r] += in[r] * weight;
+                }
+            }
+            double bias = biases[c];
+            for (int r = 0; r < n; r++) {
+                sum[r] = sigmoid(sum[r] + bias);
+            }
+        }
+    }
+
+    public int getInputCount() { return inputSlots.length; }
+    public int getOutputCount() { return outputSlots.length; }
+
+    /**
+     * Fonction d'activation Sigmoïde "Raidie" (Steepened Sigmoid).
+     * Crucial pour XOR avec NEAT.
+     */
+    static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-4.9 * x));
+    }
+}
@@ -1,32 +1,35 @@
 package xor_neat;
 
 import xor_common.CSVLogger;
+import xor_common.EvaluationTask;
+import xor_common.MappedDataset;
+import xor_common.RandomStreams;
+import xor_common.TruthTableTask;
 import javax.swing.SwingUtilities;
 import java.io.IOException;
-import java.util.*;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class NeatXorSolver {
 
-    private static final Random RANDOM = new Random();
     private static final NeatConfig config = new NeatConfig();
 
-    // Données XOR
-    private static final double[][] XOR_INPUTS = {
-            {0, 0, 1}, {0, 1, 1}, {1, 0, 1}, {1, 1, 1}
-    };
-    private static final double[] XOR_TARGETS = {0, 1, 1, 0};
+    // Tâche évaluée : NeatConfig.TASK, ou le jeu de données NeatConfig.DATASET_FILE (workers compris)
+    private static final EvaluationTask TASK = createTask();
+    private static final int INPUT_COUNT = TASK.getInputCount();
+    private static final int OUTPUT_COUNT = TASK.getOutputCount();
 
-    private static final int INPUT_COUNT = 2;
-    private static final int OUTPUT_COUNT = 1;
-    // Inputs + Biais + Output
-    private static final int INITIAL_NODES = INPUT_COUNT + 1 + OUTPUT_COUNT;
-
-    private static InnovationTracker innovationTracker;
-    private static List<NeatGenome> population;
-    private static List<Species> species;
+    // NeatConfig.FITNESS_THRESHOLD est exprimé pour XOR (fitness max 4² = 16) : mis à l'échelle de la tâche
+    private static final double FITNESS_THRESHOLD = NeatConfig.FITNESS_THRESHOLD / 16.0 * maxFitness(TASK);
+    private static final double VERBOSE_FITNESS = 14.0 / 16.0 * maxFitness(TASK);
 
     // Référence au visualiseur
     private static NetworkVisualizer visualizer;
+    // Début de l'évolution (temps jusqu'à la solution)
+    private static long startNanos;
 
     public static void main(String[] args) {
         System.out.println("--- Démarrage de NEAT (Mode Live Visual) ---");
@@ -40,233 +43,221 @@ public class NeatXorSolver {
         // Attendre un peu que la fenêtre s'ouvre
         try { Thread.sleep(1000); } catch (InterruptedException e) {}
 
-        innovationTracker = new InnovationTracker(INITIAL_NODES);
-        population = new ArrayList<>();
-        species = new ArrayList<>();
-
-        // Initialisation de la population
-        for (int i = 0; i < NeatConfig.POPULATION_SIZE; i++) {
-            population.add(new NeatGenome(INPUT_COUNT, OUTPUT_COUNT, innovationTracker));
-        }
-
-        NeatGenome bestOverallGenome = null;
-
-        try (CSVLogger logger = new CSVLogger("neat_progression_log_complet.csv")) {
-
-            for (int gen = 1; gen <= NeatConfig.MAX_GENERATIONS; gen++) {
-
-                // 2. Évaluation
-                for (NeatGenome genome : population) {
-                    genome.setFitness(calculateFitness(genome));
-                }
-
-                // 3. Tri de la population (Le meilleur en premier)
-                population.sort(Collections.reverseOrder(Comparator.comparingDouble(NeatGenome::getFitness)));
-
-                // Sauvegarde du meilleur absolu
-                if (bestOverallGenome == null || population.get(0).getFitness() > bestOverallGenome.getFitness()) {
-                    bestOverallGenome = population.get(0).copy();
-                }
-
-                NeatGenome currentGenBest = population.get(0);
-
-                // --- MISE A JOUR VISUELLE ---
-                final int currentGen = gen;
-                final NeatGenome genomeToDraw = currentGenBest; // Copie de référence
-                SwingUtilities.invokeLater(() -> {
-                    if (visualizer != null) {
-                        visualizer.updateGenome(genomeToDraw, currentGen);
-                    }
-                });
-
-                // --- Logs ---
-                double maxFitness = currentGenBest.getFitness();
-                double avgFitness = population.stream().mapToDouble(NeatGenome::getFitness).average().orElse(0.0);
-
-                logger.logGeneration(gen, maxFitness, avgFitness);
-
-                // Affichage console (toutes les 10 gén ou si on a un bon score)
-                if (gen % 10 == 0 || gen == 1 || maxFitness > 14.0) {
-                    System.out.printf("Gén %4d | MaxFit: %.4f | Espèces: %3d | Structure: %d N, %d L\n",
-                            gen, maxFitness, species.size(),
-                            currentGenBest.getNodes().size(), currentGenBest.getConnections().size());
-                }
-
-                // --- Vérification de Succès ---
-                if (maxFitness >= NeatConfig.FITNESS_THRESHOLD) {
-                    System.out.println("\n✅ SUCCÈS ! Solution trouvée à la génération " + gen);
-                    // On force une dernière mise à jour visuelle
-                    SwingUtilities.invokeLater(() -> visualizer.updateGenome(genomeToDraw, currentGen));
-                    break;
-                }
-
-                // 4. Spéciation
-                speciate();
-
-                // 5. Reproduction
-                List<NeatGenome> nextGeneration = new ArrayList<>();
-
-                // Calcul du fitness total ajusté
-                double totalAdjustedFitness = 0.0;
-                for (Species s : species) {
-                    s.adjustFitness();
-                    totalAdjustedFitness += s.getTotalAdjustedFitness();
-                }
-
-                if (totalAdjustedFitness <= 0) {
-                    // Sécurité : si tout le monde est nul, on garde la population actuelle ou on en recrée une
-                    nextGeneration.addAll(population);
-                } else {
-                    for (Species s : species) {
-                        // Nombre d'enfants proportionnel au fitness de l'espèce
-                        int offspringCount = (int) ((s.getTotalAdjustedFitness() / totalAdjustedFitness) * NeatConfig.POPULATION_SIZE);
-
-                        // Elitisme : on garde le champion de l'espèce directement
-                        if (offspringCount > 0) {
-                            s.getMembers().sort(Collections.reverseOrder(Comparator.comparingDouble(NeatGenome::getFitness)));
-                            nextGeneration.add(s.getMembers().get(0).copy());
-                            offspringCount--;
-                        }
-
-                        // Création des enfants (Crossover / Mutation)
-                        for (int i = 0; i < offspringCount; i++) {
-                            nextGeneration.add(s.createOffspring(config, innovationTracker));
-                        }
-                    }
-                }
-
-                // Remplissage (si erreurs d'arrondi)
-                while (nextGeneration.size() < NeatConfig.POPULATION_SIZE) {
-                    if (!species.isEmpty()) {
-                        Species randomSpecies = species.get(RANDOM.nextInt(species.size()));
-                        nextGeneration.add(randomSpecies.createOffspring(config, innovationTracker));
-                    } else {
-                        nextGeneration.add(new NeatGenome(INPUT_COUNT, OUTPUT_COUNT, innovationTracker));
-                    }
-                }
-                population = nextGeneration;
+        // "--resume" : reprise depuis NeatConfig.CHECKPOINT_FILE (graine comprise)
+        boolean resume = args.length > 0 && args[0].equals("--resume");
+        long seed = resume ? 0 : RandomStreams.resolveSeed(args, NeatConfig.RANDOM_SEED);
+        System.out.printf("Tâche : %s (%d lignes, %d entrées, %d sorties)\n",
+                TASK.getName(), TASK.getRowCount(), INPUT_COUNT, OUTPUT_COUNT);
+        if (!resume) System.out.println("Graine: " + seed);
+
+        // Toute l'exécution (population, espèces, innovations, flux aléatoires) est dans le moteur
+        startNanos = System.nanoTime();
+        try {
+            NeatGenome best;
+            if (NeatConfig.ISLAND_COUNT > 1) {
+                if (resume) throw new IllegalStateException("Reprise non disponible en modèle en îles");
+                best = runIslands(seed);
+            } else if (NeatConfig.REMOTE_WORKERS > 0) {
+                best = runDistributed(seed, resume);
+            } else {
+                best = runSingle(seed, resume, null);
             }
-
-            displayFinalResults(bestOverallGenome);
+            displayFinalResults(best);
 
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    // --- Méthodes Logiques ---
+    // lastGeneration : dernière génération déjà journalisée à conserver (-1 = nouveau journal)
+    private static CSVLogger openLog(int lastGeneration) throws IOException {
+        return new CSVLogger("neat_progression_log_complet.csv", true, lastGeneration,
+                "SpeciesCount", "BestNodes", "BestConnections");
+    }
+
+    private static NeatGenome runSingle(long seed, boolean resume, RemoteEvaluator remote) throws IOException {
+        Path checkpoint = Paths.get(NeatConfig.CHECKPOINT_FILE);
+        try (NeatEngine engine = createEngine(seed, resume, checkpoint, remote);
+             CSVLogger logger = openLog(resume ? engine.getGeneration() : -1)) {
 
-    private static void speciate() {
-        // Vider les espèces
-        for (Species s : species) s.clear();
-
-        // Réassigner chaque génome
-        for (NeatGenome genome : population) {
-            boolean foundSpecies = false;
-            for (Species s : species) {
-                if (s.addMember(genome, config)) {
-                    foundSpecies = true;
-                    break;
-                }
+            if (resume) {
+                System.out.println("Reprise de " + checkpoint + " : graine " + engine.getSeed()
+                        + ", génération " + engine.getGeneration());
+            }
+            engine.setCheckpoint(checkpoint, NeatConfig.CHECKPOINT_INTERVAL);
+            if (NeatConfig.EARLY_EXIT && remote == null) engine.setEarlyExit(NeatXorSolver::calculateFitness);
+
+            if (NeatConfig.STEADY_STATE) {
+                System.out.println("Mode stationnaire (rtNEAT) : 1 génération = " + NeatConfig.POPULATION_SIZE + " remplacements");
+                engine.runSteadyState(stats -> stats.getMaxFitness() >= FITNESS_THRESHOLD,
+                        NeatConfig.MAX_GENERATIONS,
+                        stats -> report(stats, logger));
+            } else {
+                engine.runUntil(stats -> stats.getMaxFitness() >= FITNESS_THRESHOLD,
+                        NeatConfig.MAX_GENERATIONS,
+                        stats -> report(stats, logger));
             }
-            if (!foundSpecies) {
-                species.add(new Species(genome));
+            reportPartialEvaluations(engine.getPartialEvaluations(), engine.getGeneration());
+            if (engine.getLastCheckpointBytes() > 0) {
+                System.out.printf("Dernier point de sauvegarde : %d Ko en %.2f ms\n",
+                        engine.getLastCheckpointBytes() / 1024, engine.getLastCheckpointNanos() / 1e6);
             }
+            return engine.getBestGenome();
         }
+    }
 
-        // Supprimer les espèces vides
-        species.removeIf(s -> s.getMembers().isEmpty());
-
-        // Préparer pour la reproduction (tri interne, choix du représentant)
-        for (Species s : species) {
-            s.prepareForReproduction(config);
+    private static NeatEngine createEngine(long seed, boolean resume, Path checkpoint, RemoteEvaluator remote)
+            throws IOException {
+        if (resume) {
+            return (remote != null)
+                    ? NeatEngine.resume(checkpoint, config, NeatXorSolver::calculateFitness, remote)
+                    : NeatEngine.resume(checkpoint, config, NeatXorSolver::calculateFitness);
         }
+        return (remote != null)
+                ? new NeatEngine(config, INPUT_COUNT, OUTPUT_COUNT, NeatXorSolver::calculateFitness, seed, remote)
+                : new NeatEngine(config, INPUT_COUNT, OUTPUT_COUNT, NeatXorSolver::calculateFitness, seed);
     }
 
-    private static double calculateFitness(NeatGenome genome) {
-        double totalError = 0.0;
-        for (int i = 0; i < XOR_INPUTS.length; i++) {
-            double output = predict(genome, XOR_INPUTS[i]);
-            double expected = XOR_TARGETS[i];
-            // Erreur quadratique
-            totalError += (expected - output) * (expected - output);
+    // Fitness calculé par des workers lancés en processus locaux, reliés en TCP sur 127.0.0.1
+    private static NeatGenome runDistributed(long seed, boolean resume) throws IOException {
+        List<Process> workers = new ArrayList<>();
+        try (RemoteEvaluator remote = new RemoteEvaluator("127.0.0.1", 0, NeatConfig.REMOTE_BATCH_SIZE,
+                NeatConfig.REMOTE_TIMEOUT_MS, NeatConfig.REMOTE_IN_FLIGHT)) {
+            for (int i = 0; i < NeatConfig.REMOTE_WORKERS; i++) {
+                workers.add(EvaluationWorker.spawnLocal("127.0.0.1", remote.getPort(), 1));
+            }
+            int connected = remote.awaitWorkers(NeatConfig.REMOTE_WORKERS, 10_000);
+            if (connected == 0) {
+                throw new IllegalStateException("Évaluation distribuée : aucun worker connecté après 10 s");
+            }
+            System.out.printf("Évaluation distribuée : %d workers connectés sur 127.0.0.1:%d\n", connected, remote.getPort());
+
+            NeatGenome best = runSingle(seed, resume, remote);
+            System.out.printf("Trames réexpédiées : %d\n", remote.getRedispatchCount());
+            return best;
+        } finally {
+            for (Process worker : workers) worker.destroy();
         }
+    }
 
-        // Fitness Max théorique = 4.0 (4 tests corrects)
-        // On met au carré pour punir les erreurs (standard NEAT)
-        double fitness = 4.0 - totalError;
-        if (fitness < 0) fitness = 0;
-        return fitness * fitness;
+    private static NeatGenome runIslands(long seed) throws IOException {
+        System.out.printf("Modèle en îles : %d populations, migration toutes les %d générations (%s)\n",
+                NeatConfig.ISLAND_COUNT, NeatConfig.MIGRATION_INTERVAL, NeatConfig.MIGRATION_TOPOLOGY);
+        try (CSVLogger logger = openLog(-1);
+             IslandModel model = new IslandModel(config, INPUT_COUNT, OUTPUT_COUNT,
+                NeatXorSolver::calculateFitness, seed, NeatConfig.ISLAND_COUNT, NeatConfig.ISLAND_SHARED_INNOVATIONS,
+                NeatConfig.MIGRATION_TOPOLOGY, NeatConfig.MIGRATION_INTERVAL, NeatConfig.MIGRANT_COUNT)) {
+
+            if (NeatConfig.EARLY_EXIT) model.setEarlyExit(NeatXorSolver::calculateFitness);
+
+            // Bilans agrégés sur toutes les îles (meilleure île, somme des espèces)
+            GenerationStats last = model.run(stats -> stats.getMaxFitness() >= FITNESS_THRESHOLD,
+                    NeatConfig.MAX_GENERATIONS,
+                    stats -> report(stats, logger));
+            reportPartialEvaluations(model.getPartialEvaluations(), last.getGeneration());
+            return model.getBestGenome();
+        }
     }
 
-    // --- Cœur du Réseau de Neurones ---
-
-    private static double predict(NeatGenome genome, double[] input) {
-        Map<Integer, Double> nodeOutputs = new HashMap<>();
-
-        // 1. Initialiser les entrées
-        // Input 0 -> XOR_INPUTS[...][0]
-        // Input 1 -> XOR_INPUTS[...][1]
-        // Input 2 -> Bias (1.0)
-        nodeOutputs.put(0, input[0]);
-        nodeOutputs.put(1, input[1]);
-        nodeOutputs.put(2, 1.0);
-
-        // 2. Propagation (Relaxation)
-        // Pour gérer les boucles ou les structures complexes, on itère
-        // un nombre de fois suffisant pour que le signal traverse le réseau.
-        // depthMax est une sécurité.
-        int maxDepth = genome.getNodes().size() + 2;
-
-        for (int step = 0; step < maxDepth; step++) {
-            boolean unstable = false;
-
-            // On parcourt tous les noeuds (sauf inputs)
-            for (NodeGene node : genome.getNodes().values()) {
-                if (node.type == NodeGene.NodeType.INPUT || node.type == NodeGene.NodeType.BIAS) continue;
-
-                double sum = 0.0;
-                boolean hasInputSignal = false;
-
-                // Somme pondérée des connexions entrantes
-                for (ConnectionGene conn : genome.getConnections().values()) {
-                    if (conn.outNodeId == node.id && conn.enabled) {
-                        hasInputSignal = true;
-                        // Si l'entrée n'est pas encore calculée, on prend 0.0 (sera corrigé à l'itération suivante)
-                        sum += nodeOutputs.getOrDefault(conn.inNodeId, 0.0) * conn.weight;
-                    }
-                }
-
-                if (hasInputSignal) {
-                    // Ajout du biais interne (mutation du noeud)
-                    sum += node.bias;
-
-                    double output = sigmoid(sum);
-
-                    // Vérifier si la valeur a changé (stabilité)
-                    double oldVal = nodeOutputs.getOrDefault(node.id, -999.0);
-                    if (Math.abs(output - oldVal) > 1e-5) {
-                        unstable = true;
-                        nodeOutputs.put(node.id, output);
-                    }
-                }
+    // --- Méthodes Logiques ---
+
+    private static void report(GenerationStats stats, CSVLogger logger) {
+        int gen = stats.getGeneration();
+        NeatGenome currentGenBest = stats.getBest();
+
+        // --- MISE A JOUR VISUELLE ---
+        SwingUtilities.invokeLater(() -> {
+            if (visualizer != null) {
+                visualizer.updateGenome(currentGenBest, gen);
             }
+        });
 
-            // Si le réseau s'est stabilisé, on arrête plus tôt
-            if (!unstable) break;
+        // --- Logs ---
+        double maxFitness = stats.getMaxFitness();
+        logger.logGeneration(gen, maxFitness, stats.getAverageFitness(), stats.getSpeciesCount(),
+                currentGenBest.getNodeCount(), currentGenBest.getConnectionCount());
+
+        // Affichage console (toutes les 10 gén ou si on a un bon score)
+        if (gen % 10 == 0 || gen == 1 || maxFitness > VERBOSE_FITNESS) {
+            System.out.printf("Gén %4d | MaxFit: %.4f | Espèces: %3d | Structure: %d N, %d L | Fitness réutilisé: %3.0f%% | Innovations: %d (%d Ko) | %.0f éval/s\n",
+                    gen, maxFitness, stats.getSpeciesCount(),
+                    currentGenBest.getNodeCount(), currentGenBest.getConnectionCount(),
+                    stats.getReuseRate() * 100,
+                    stats.getInnovationEntries(), stats.getInnovationHeapBytes() / 1024,
+                    stats.getEvaluationsPerSecond());
         }
 
-        // Retourner la valeur du noeud de sortie (ID = 3 pour XOR avec 2 inputs + 1 biais)
-        // Structure standard : 0,1 (Inputs), 2 (Bias), 3 (Output)
-        return nodeOutputs.getOrDefault(3, 0.0);
+        // --- Vérification de Succès ---
+        if (maxFitness >= FITNESS_THRESHOLD) {
+            System.out.println("\n✅ SUCCÈS ! Solution trouvée à la génération " + gen);
+            System.out.printf("Temps jusqu'à la solution : %.2f s (%d évaluations)\n",
+                    (System.nanoTime() - startNanos) / 1e9, stats.getEvaluations());
+            // On force une dernière mise à jour visuelle
+            SwingUtilities.invokeLater(() -> visualizer.updateGenome(currentGenBest, gen));
+        }
+    }
+
+    public static double calculateFitness(NeatGenome genome) {
+        return calculateFitness(TASK, genome);
+    }
+
+    /**
+     * Évaluation interrompue sur la tâche courante (voir BoundedFitnessFunction).
+     */
+    public static double calculateFitness(NeatGenome genome, double cutoff, boolean[] interrupted) {
+        return calculateFitness(TASK, genome, cutoff, interrupted);
     }
 
     /**
-     * Fonction d'activation Sigmoïde "Raidie" (Steepened Sigmoid).
-     * Crucial pour XOR avec NEAT.
+     * Fitness d'un génome sur une tâche : le phénotype est compilé une seule fois, puis les
+     * lignes défilent par lots (voir EvaluationTask.sumSquaredError).
      */
-    private static double sigmoid(double x) {
-        return 1.0 / (1.0 + Math.exp(-4.9 * x));
+    public static double calculateFitness(EvaluationTask task, NeatGenome genome) {
+        return calculateFitness(task, genome, Double.NEGATIVE_INFINITY, null);
+    }
+
+    /**
+     * Comme calculateFitness(task, genome), mais les lignes cessent de défiler dès que l'erreur
+     * cumulée rend cutoff inatteignable : interrupted[0] passe alors à true (si interrupted n'est
+     * pas null) et le résultat, inférieur à cutoff, est un majorant du fitness (fitness partiel).
+     */
+    public static double calculateFitness(EvaluationTask task, NeatGenome genome, double cutoff,
+                                          boolean[] interrupted) {
+        NeatNetwork network = NeatNetwork.compile(genome);
+        // (max - erreur)² >= cutoff  <=>  erreur <= max - sqrt(cutoff)
+        double errorBound = (cutoff > 0) ? task.getMaxScore() - Math.sqrt(cutoff) : Double.POSITIVE_INFINITY;
+        long[] rowsRead = new long[1];
+        double totalError = task.sumSquaredError(network, errorBound, rowsRead);
+
+        // Fitness Max théorique = une unité par sortie et par ligne (4.0 pour XOR : 4 tests corrects)
+        // On met au carré pour punir les erreurs (standard NEAT)
+        double fitness = task.getMaxScore() - totalError;
+        if (fitness < 0) fitness = 0;
+        fitness = fitness * fitness;
+        // Toutes les lignes lues : fitness exact, même sous le seuil
+        if (rowsRead[0] == task.getRowCount()) return fitness;
+        if (interrupted != null) interrupted[0] = true;
+        // Arrondis : une évaluation interrompue reste toujours signalée sous le seuil
+        return Math.min(fitness, Math.nextDown(cutoff));
+    }
+
+    private static void reportPartialEvaluations(long partial, int generations) {
+        if (NeatConfig.EARLY_EXIT) {
+            System.out.printf("Évaluations interrompues : %d (en %d générations)\n", partial, generations);
+        }
+    }
+
+    private static double maxFitness(EvaluationTask task) {
+        return task.getMaxScore() * task.getMaxScore();
+    }
+
+    private static EvaluationTask createTask() {
+        if (NeatConfig.DATASET_FILE.isEmpty()) return EvaluationTask.named(NeatConfig.TASK, NeatConfig.TASK_SIZE);
+        try {
+            return new MappedDataset(Paths.get(NeatConfig.DATASET_FILE), NeatConfig.DATASET_INPUTS, NeatConfig.DATASET_OUTPUTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Jeu de données illisible : " + NeatConfig.DATASET_FILE, e);
+        }
     }
 
     private static void displayFinalResults(NeatGenome best) {
@@ -274,11 +265,23 @@ public class NeatXorSolver {
         System.out.printf("Fitness Atteinte: %.6f\n", best.getFitness());
         System.out.printf("Structure: %d Noeuds, %d Connexions\n", best.getNodes().size(), best.getConnections().size());
 
+        // Premières lignes de la tâche (toutes pour XOR)
+        int rows = (int) Math.min(TASK.getRowCount(), 16);
+        double[][] inputs = new double[INPUT_COUNT][rows];
+        double[][] targets = new double[OUTPUT_COUNT][rows];
+        double[][] outputs = new double[OUTPUT_COUNT][rows];
+        TASK.readRows(0, rows, inputs, targets);
+        NeatNetwork network = NeatNetwork.compile(best);
+        network.predict(inputs, 0, rows, outputs);
+
         System.out.println("Prédictions :");
-        for (int i = 0; i < XOR_INPUTS.length; i++) {
-            double prediction = predict(best, XOR_INPUTS[i]);
-            System.out.printf("  In: (%.0f, %.0f) | Cible: %.0f | Out: %.4f\n",
-                    XOR_INPUTS[i][0], XOR_INPUTS[i][1], XOR_TARGETS[i], prediction);
+        for (int r = 0; r < rows; r++) {
+            System.out.printf("  In: (%s) | Cible: %s | Out: %s\n", EvaluationTask.formatRow(inputs, r),
+                    EvaluationTask.formatRow(targets, r), EvaluationTask.formatOutputs(outputs, r));
+        }
+        if (TASK instanceof TruthTableTask) {
+            System.out.printf("Lignes mal classées : %d / %d\n",
+                    ((TruthTableTask) TASK).misclassifiedRows(network), TASK.getRowCount());
         }
     }
-}
\ No newline at end of file
+}
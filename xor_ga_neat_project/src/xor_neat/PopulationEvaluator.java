@@ -0,0 +1,215 @@
+package xor_neat;
+
+import xor_common.FitnessCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Évalue une population de génomes, en parallèle sur un ForkJoinPool dédié.
+ * Avec un seul thread, l'évaluation reste séquentielle sur le thread appelant.
+ *
+ * Les génomes non modifiés (non "dirty") gardent leur fitness ; les autres passent
+ * par un cache LRU optionnel indexé par NeatGenome.contentHash().
+ * Avec un RemoteEvaluator, les génomes restant à calculer sont évalués par les workers distants.
+ * Les fitness partiels (évaluation interrompue sous le seuil) ne sont jamais mis en cache ;
+ * la copie inchangée d'un génome interrompu (élite) est réévaluée sans seuil.
+ */
+public class PopulationEvaluator implements AutoCloseable {
+
+    // Nombre de blocs par thread (équilibrage quand les réseaux ont des tailles variées)
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final FitnessCache cache;
+    private final RemoteEvaluator remote;
+
+    // Statistiques de la dernière évaluation
+    private final AtomicInteger cleanSkips = new AtomicInteger();
+    private final AtomicInteger partials = new AtomicInteger();
+    private int lastPopulationSize = 0;
+
+    public PopulationEvaluator(int threads) {
+        this(threads, 0);
+    }
+
+    /**
+     * @param cacheSize taille du cache de fitness (0 = pas de cache)
+     */
+    public PopulationEvaluator(int threads, int cacheSize) {
+        this.threads = Math.max(1, threads);
+        this.pool = (this.threads > 1) ? new ForkJoinPool(this.threads) : null;
+        this.ownsPool = true;
+        this.cache = (cacheSize > 0) ? new FitnessCache(cacheSize) : null;
+        this.remote = null;
+    }
+
+    /**
+     * Évaluateur utilisant un pool partagé (non fermé par close() ; null = séquentiel).
+     */
+    public PopulationEvaluator(ForkJoinPool sharedPool, int cacheSize) {
+        this(sharedPool, cacheSize, null);
+    }
+
+    /**
+     * @param remote évaluateur distant (null = calcul local sur le pool)
+     */
+    public PopulationEvaluator(ForkJoinPool sharedPool, int cacheSize, RemoteEvaluator remote) {
+        this.threads = (sharedPool != null) ? sharedPool.getParallelism() : 1;
+        this.pool = sharedPool;
+        this.ownsPool = false;
+        this.cache = (cacheSize > 0) ? new FitnessCache(cacheSize) : null;
+        this.remote = remote;
+    }
+
+    /**
+     * Calcule et affecte le fitness de chaque génome.
+     * La fonction de fitness doit être sans état partagé (elle est appelée en concurrence).
+     */
+    public void evaluate(List<NeatGenome> population, ToDoubleFunction<NeatGenome> fitnessFunction) {
+        evaluate(population, (genome, cutoff, interrupted) -> fitnessFunction.applyAsDouble(genome),
+                Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Évaluation interrompue : un génome dont l'évaluation s'arrête avant la dernière ligne, sous
+     * cutoff, reçoit un fitness partiel (voir BoundedFitnessFunction). Les workers distants calculent toujours le fitness exact.
+     */
+    public void evaluate(List<NeatGenome> population, BoundedFitnessFunction fitnessFunction, double cutoff) {
+        cleanSkips.set(0);
+        partials.set(0);
+        if (cache != null) cache.resetStatistics();
+        lastPopulationSize = population.size();
+
+        if (remote != null) {
+            evaluateRemotely(population);
+            return;
+        }
+        if (pool == null || population.size() < 2) {
+            for (NeatGenome genome : population) {
+                evaluateOne(genome, fitnessFunction, cutoff);
+            }
+            return;
+        }
+
+        int size = population.size();
+        int chunkCount = Math.min(size, threads * CHUNKS_PER_THREAD);
+        List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+        for (int c = 0; c < chunkCount; c++) {
+            int from = (int) ((long) size * c / chunkCount);
+            int to = (int) ((long) size * (c + 1) / chunkCount);
+            tasks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    evaluateOne(population.get(i), fitnessFunction, cutoff);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Évaluation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant l'évaluation", e.getCause());
+        }
+    }
+
+    // Génomes propres et hits du cache traités ici ; le reste part en lots vers les workers
+    private void evaluateRemotely(List<NeatGenome> population) {
+        List<NeatGenome> toCompute = new ArrayList<>();
+        for (NeatGenome genome : population) {
+            if (!genome.isDirty() && !genome.isPartialFitness()) {
+                cleanSkips.incrementAndGet();
+                continue;
+            }
+            Double cached = (cache != null) ? cache.get(genome.contentHash()) : null;
+            if (cached != null) {
+                genome.setFitness(cached);
+            } else {
+                toCompute.add(genome);
+            }
+        }
+        if (toCompute.isEmpty()) return;
+
+        double[] fitness = remote.evaluateAll(toCompute);
+        for (int i = 0; i < fitness.length; i++) {
+            NeatGenome genome = toCompute.get(i);
+            if (cache != null) cache.put(genome.contentHash(), fitness[i]);
+            genome.setFitness(fitness[i]);
+        }
+    }
+
+    private void evaluateOne(NeatGenome genome, BoundedFitnessFunction fitnessFunction, double cutoff) {
+        // Génome inchangé (champion copié, population conservée) : fitness déjà à jour
+        if (!genome.isDirty()) {
+            if (!genome.isPartialFitness()) {
+                cleanSkips.incrementAndGet();
+                return;
+            }
+            // Copie d'un génome interrompu : son majorant ne doit pas tenir lieu de fitness, évaluation complète
+            cutoff = Double.NEGATIVE_INFINITY;
+        }
+        long key = 0;
+        if (cache != null) {
+            key = genome.contentHash();
+            Double cached = cache.get(key);
+            // Sous le seuil, le cache ne remplace pas l'évaluation bornée : exact ou partiel, le
+            // résultat ne dépend pas du contenu du cache (ni donc d'une reprise ou des threads)
+            if (cached != null && cached >= cutoff) {
+                genome.setFitness(cached);
+                return;
+            }
+        }
+        boolean[] interrupted = new boolean[1];
+        double fitness = fitnessFunction.applyAsDouble(genome, cutoff, interrupted);
+        if (interrupted[0]) {
+            partials.incrementAndGet();
+            genome.setPartialFitness(fitness);
+            return;
+        }
+        if (cache != null) cache.put(key, fitness);
+        genome.setFitness(fitness);
+    }
+
+    /**
+     * Nombre d'évaluations évitées lors du dernier appel (génomes propres + hits du cache).
+     */
+    public int getLastReusedCount() {
+        return cleanSkips.get() + (cache == null ? 0 : (int) cache.getHits());
+    }
+
+    /**
+     * Nombre de fitness partiels (évaluations interrompues) lors du dernier appel.
+     */
+    public int getLastPartialCount() {
+        return partials.get();
+    }
+
+    /**
+     * Taux de réutilisation du fitness lors du dernier appel, entre 0 et 1.
+     */
+    public double getLastReuseRate() {
+        return (lastPopulationSize == 0) ? 0.0 : (double) getLastReusedCount() / lastPopulationSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null && ownsPool) pool.shutdown();
+    }
+}
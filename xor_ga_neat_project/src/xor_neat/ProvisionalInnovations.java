@@ -0,0 +1,110 @@
+package xor_neat;
+
+import java.util.Arrays;
+
+/**
+ * Innovations d'un enfant produit en parallèle.
+ *
+ * Les innovations déjà connues du tracker sont lues sans le modifier (lecture sans verrou).
+ * Les nouvelles reçoivent un identifiant provisoire (>= PROVISIONAL_BASE, donc triées après
+ * toutes les vraies) et sont notées dans l'ordre de création. commit(), appelé sur le thread
+ * principal dans l'ordre des enfants, les enregistre dans le tracker et renumérote le génome :
+ * les numéros attribués ne dépendent donc pas de l'ordonnancement des threads.
+ */
+final class ProvisionalInnovations implements InnovationSource {
+
+    static final int PROVISIONAL_BASE = 1 << 30;
+
+    private final InnovationTracker tracker;
+
+    // Événements dans l'ordre de création : connexion (clé in << 32 | out) ou nœud (innovation divisée)
+    private int count = 0;
+    private boolean[] nodeEvents = new boolean[4];
+    private long[] keys = new long[4];
+    private int[] provisionalIds = new int[4];
+    private int[] realIds;
+
+    private int nextInnovation = PROVISIONAL_BASE;
+    private int nextNodeId = PROVISIONAL_BASE;
+
+    ProvisionalInnovations(InnovationTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public int getInnovation(int inNodeId, int outNodeId) {
+        int known = tracker.findInnovation(inNodeId, outNodeId);
+        if (known >= 0) return known;
+        long key = ((long) inNodeId << 32) | (outNodeId & 0xFFFFFFFFL);
+        int index = indexOf(false, key);
+        if (index >= 0) return provisionalIds[index];
+        return record(false, key, nextInnovation++);
+    }
+
+    @Override
+    public int getNewNodeId(int splitInnovationId) {
+        int known = tracker.findNodeId(splitInnovationId);
+        if (known >= 0) return known;
+        int index = indexOf(true, splitInnovationId);
+        if (index >= 0) return provisionalIds[index];
+        return record(true, splitInnovationId, nextNodeId++);
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Enregistre les innovations provisoires dans le tracker (dans leur ordre de création)
+     * et remplace les identifiants provisoires du génome par les définitifs.
+     */
+    void commit(NeatGenome genome) {
+        realIds = new int[count];
+        for (int e = 0; e < count; e++) {
+            if (nodeEvents[e]) {
+                realIds[e] = tracker.getNewNodeId(resolveInnovation((int) keys[e]));
+            } else {
+                int in = resolveNodeId((int) (keys[e] >>> 32));
+                int out = resolveNodeId((int) keys[e]);
+                realIds[e] = tracker.getInnovation(in, out);
+            }
+        }
+        genome.renumber(this::resolveNodeId, this::resolveInnovation);
+    }
+
+    private int resolveNodeId(int id) {
+        return (id < PROVISIONAL_BASE) ? id : realIds[indexOfProvisional(true, id)];
+    }
+
+    private int resolveInnovation(int innovation) {
+        return (innovation < PROVISIONAL_BASE) ? innovation : realIds[indexOfProvisional(false, innovation)];
+    }
+
+    // Quelques événements par enfant au plus : recherche linéaire
+    private int indexOf(boolean nodeEvent, long key) {
+        for (int e = 0; e < count; e++) {
+            if (nodeEvents[e] == nodeEvent && keys[e] == key) return e;
+        }
+        return -1;
+    }
+
+    private int indexOfProvisional(boolean nodeEvent, int provisionalId) {
+        for (int e = 0; e < count; e++) {
+            if (nodeEvents[e] == nodeEvent && provisionalIds[e] == provisionalId) return e;
+        }
+        throw new IllegalStateException("Identifiant provisoire inconnu : " + provisionalId);
+    }
+
+    private int record(boolean nodeEvent, long key, int provisionalId) {
+        if (count == keys.length) {
+            nodeEvents = Arrays.copyOf(nodeEvents, count * 2);
+            keys = Arrays.copyOf(keys, count * 2);
+            provisionalIds = Arrays.copyOf(provisionalIds, count * 2);
+        }
+        nodeEvents[count] = nodeEvent;
+        keys[count] = key;
+        provisionalIds[count] = provisionalId;
+        count++;
+        return provisionalId;
+    }
+}
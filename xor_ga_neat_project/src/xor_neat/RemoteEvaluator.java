@@ -0,0 +1,390 @@
+package xor_neat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinateur de l'évaluation distribuée : les génomes sont envoyés par lots, en trames binaires
+ * (EvaluationProtocol), à des workers EvaluationWorker connectés en TCP, qui renvoient les fitness.
+ *
+ * - Lots : evaluateAll() découpe la liste en lots de batchSize génomes, encodés une seule fois.
+ * - Pipelining : chaque worker a jusqu'à inFlightPerWorker lots en vol ; un worker libre prend
+ *   le lot suivant dans la file commune (les workers rapides en traitent donc plus).
+ * - Délai : un lot sans réponse après timeoutMillis est remis en tête de file et réexpédié au
+ *   premier worker disponible ; la première réponse gagne, les suivantes sont ignorées.
+ *   Un worker déconnecté voit tous ses lots en vol réexpédiés ; un worker dont toutes les places
+ *   en vol ont expiré sans aucune réponse est considéré comme perdu.
+ * - Sans worker : si aucun worker n'est connecté pendant timeoutMillis alors que des lots
+ *   attendent, ces lots échouent (evaluateAll() lève une exception au lieu d'attendre).
+ * Les workers se connectent au port d'écoute, à tout moment de l'exécution.
+ */
+public class RemoteEvaluator implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final int batchSize;
+    private final long timeoutNanos;
+    private final int inFlightPerWorker;
+
+    // File des lots à expédier (les réexpéditions passent devant)
+    private final LinkedBlockingDeque<Batch> queue = new LinkedBlockingDeque<>();
+    // Lots non terminés, par numéro
+    private final Map<Long, Batch> pending = new ConcurrentHashMap<>();
+    private final List<WorkerConnection> workers = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong nextBatchId = new AtomicLong();
+    private final AtomicInteger redispatches = new AtomicInteger();
+    private final AtomicInteger workerNumbers = new AtomicInteger();
+
+    private final Thread acceptThread;
+    private final ScheduledExecutorService watchdog;
+    private long orphanedSince = -1; // Lots en attente sans aucun worker depuis (watchdog seul)
+    private volatile boolean closed = false;
+
+    /**
+     * @param bindAddress adresse d'écoute (ex. 127.0.0.1)
+     * @param port port d'écoute (0 = port libre, voir getPort())
+     */
+    public RemoteEvaluator(String bindAddress, int port, int batchSize, long timeoutMillis,
+                           int inFlightPerWorker) throws IOException {
+        this.batchSize = Math.max(1, batchSize);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMillis));
+        this.inFlightPerWorker = Math.max(1, inFlightPerWorker);
+
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+
+        this.acceptThread = new Thread(this::acceptLoop, "remote-evaluator-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        long period = Math.max(TimeUnit.NANOSECONDS.toMillis(timeoutNanos) / 4, 10);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "remote-evaluator-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleAtFixedRate(this::watch, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Attend que count workers soient connectés (au plus timeoutMillis). Renvoie le nombre connecté.
+     */
+    public int awaitWorkers(int count, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (workers.size() < count && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return workers.size();
+    }
+
+    /**
+     * Évalue tous les génomes (lots de batchSize, répartis sur les workers) et renvoie leurs
+     * fitness dans l'ordre de la liste. Bloque jusqu'à la dernière réponse.
+     */
+    public double[] evaluateAll(List<NeatGenome> genomes) {
+        List<CompletableFuture<double[]>> futures = new ArrayList<>();
+        for (int from = 0; from < genomes.size(); from += batchSize) {
+            futures.add(submit(genomes.subList(from, Math.min(from + batchSize, genomes.size()))));
+        }
+
+        double[] fitness = new double[genomes.size()];
+        int offset = 0;
+        for (CompletableFuture<double[]> future : futures) {
+            double[] values = await(future);
+            System.arraycopy(values, 0, fitness, offset, values.length);
+            offset += values.length;
+        }
+        return fitness;
+    }
+
+    /**
+     * Expédie un lot (encodé immédiatement) ; le résultat contient un fitness par génome.
+     */
+    public CompletableFuture<double[]> submit(List<NeatGenome> genomes) {
+        if (closed) throw new IllegalStateException("Évaluateur distant fermé");
+        Batch batch = new Batch(nextBatchId.getAndIncrement(), genomes.size(), EvaluationProtocol.encodeBatch(genomes));
+        pending.put(batch.id, batch);
+        queue.addLast(batch);
+        return batch.result;
+    }
+
+    static double[] await(CompletableFuture<double[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Évaluation distante interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant l'évaluation distante", e.getCause());
+        }
+    }
+
+    // Nombre de lots réexpédiés (délai dépassé ou worker perdu)
+    public int getRedispatchCount() {
+        return redispatches.get();
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                WorkerConnection worker = new WorkerConnection(socket, workerNumbers.getAndIncrement());
+                workers.add(worker);
+                worker.start();
+            } catch (IOException e) {
+                if (!closed) System.err.println("Connexion de worker refusée : " + e.getMessage());
+            }
+        }
+    }
+
+    // Tâche périodique du watchdog
+    private void watch() {
+        redispatchExpired();
+        failIfNoWorkers();
+    }
+
+    // Lots en vol depuis plus de timeoutNanos : remis en tête de file (une fois par expédition)
+    private void redispatchExpired() {
+        long now = System.nanoTime();
+        for (WorkerConnection worker : workers) {
+            for (Dispatch dispatch : worker.inFlight.values()) {
+                boolean expired = now - dispatch.sentAt > timeoutNanos;
+                if (dispatch.batch.result.isDone()) {
+                    // Réponse reçue d'un autre worker : passé le délai, la place est rendue
+                    // sans attendre celui-ci (qui peut ne jamais répondre)
+                    if (expired) worker.release(dispatch);
+                    continue;
+                }
+                if (expired && !dispatch.requeued) {
+                    dispatch.requeued = true;
+                    requeue(dispatch.batch);
+                    if (worker.timeouts.incrementAndGet() >= inFlightPerWorker) {
+                        worker.fail(new IOException("aucune réponse à " + worker.timeouts.get() + " lots"));
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Des lots attendent et aucun worker n'est connecté depuis timeoutNanos : ils échouent
+    private void failIfNoWorkers() {
+        if (!workers.isEmpty() || pending.isEmpty()) {
+            orphanedSince = -1;
+            return;
+        }
+        long now = System.nanoTime();
+        if (orphanedSince < 0) {
+            orphanedSince = now;
+        } else if (now - orphanedSince > timeoutNanos) {
+            orphanedSince = -1;
+            failPending(new IllegalStateException("Aucun worker connecté depuis "
+                    + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms"));
+        }
+    }
+
+    private void failPending(Exception cause) {
+        for (Batch batch : pending.values()) batch.result.completeExceptionally(cause);
+        pending.clear();
+        queue.clear();
+    }
+
+    private void requeue(Batch batch) {
+        if (batch.result.isDone() || closed) return;
+        redispatches.incrementAndGet();
+        queue.addFirst(batch);
+    }
+
+    private static void checkResult(Batch batch, double[] fitness) {
+        if (fitness.length != batch.size) {
+            throw new IllegalArgumentException("Réponse de " + fitness.length + " fitness pour un lot de " + batch.size);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        watchdog.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Fermeture : rien à faire
+        }
+        for (WorkerConnection worker : workers) worker.shutdown();
+        failPending(new IllegalStateException("Évaluateur distant fermé"));
+    }
+
+    // --- Lots et connexions ---
+
+    private static final class Batch {
+        final long id;
+        final int size;
+        final ByteBuffer payload; // Trame encodée une fois, relue à chaque expédition
+        final CompletableFuture<double[]> result = new CompletableFuture<>();
+
+        Batch(long id, int size, ByteBuffer payload) {
+            this.id = id;
+            this.size = size;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Dispatch {
+        final Batch batch;
+        final long sentAt;
+        volatile boolean requeued = false;
+
+        Dispatch(Batch batch, long sentAt) {
+            this.batch = batch;
+            this.sentAt = sentAt;
+        }
+    }
+
+    /**
+     * Un worker connecté : un thread d'envoi (prend les lots dans la file tant qu'il reste des
+     * places en vol) et un thread de réception (associe chaque réponse à son lot).
+     */
+    private final class WorkerConnection {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final Semaphore slots = new Semaphore(inFlightPerWorker);
+        private final Map<Long, Dispatch> inFlight = new ConcurrentHashMap<>();
+        // Lots expirés depuis la dernière réponse de ce worker
+        private final AtomicInteger timeouts = new AtomicInteger();
+        private final Thread sender;
+        private final Thread receiver;
+        private final AtomicBoolean alive = new AtomicBoolean(true);
+
+        WorkerConnection(Socket socket, int number) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.sender = new Thread(this::sendLoop, "remote-evaluator-send-" + number);
+            this.receiver = new Thread(this::receiveLoop, "remote-evaluator-receive-" + number);
+            sender.setDaemon(true);
+            receiver.setDaemon(true);
+        }
+
+        void start() {
+            sender.start();
+            receiver.start();
+        }
+
+        private void sendLoop() {
+            Batch batch = null;
+            try {
+                while (alive.get()) {
+                    slots.acquire();
+                    batch = queue.takeFirst();
+                    if (!alive.get()) break;
+                    if (batch.result.isDone()) {
+                        slots.release();
+                        batch = null;
+                        continue;
+                    }
+                    // Même lot réexpédié à ce worker : l'ancienne expédition rend sa place
+                    if (inFlight.put(batch.id, new Dispatch(batch, System.nanoTime())) != null) slots.release();
+                    EvaluationProtocol.writeFrame(out, EvaluationProtocol.EVALUATE, batch.id, batch.payload.duplicate());
+                    batch = null;
+                }
+            } catch (InterruptedException e) {
+                // Arrêt demandé par shutdown()
+            } catch (IOException e) {
+                fail(e);
+            }
+            // Lot pris mais peut-être jamais parti (connexion perdue entre-temps)
+            if (batch != null) requeue(batch);
+        }
+
+        private void receiveLoop() {
+            try {
+                EvaluationProtocol.Frame frame;
+                while ((frame = EvaluationProtocol.readFrame(in)) != null) {
+                    if (frame.type != EvaluationProtocol.RESULT) {
+                        throw new IOException("Trame inattendue : " + frame.type);
+                    }
+                    // Réponse décodée et vérifiée avant de retirer l'expédition : si elle est
+                    // invalide, le lot est encore en vol et fail() le réexpédie
+                    double[] fitness = EvaluationProtocol.decodeResults(frame.payload);
+                    Batch batch = pending.get(frame.batchId);
+                    if (batch != null) checkResult(batch, fitness);
+                    timeouts.set(0);
+                    // Place déjà rendue si le watchdog a retiré l'expédition
+                    if (inFlight.remove(frame.batchId) != null) slots.release();
+                    if (batch != null && batch.result.complete(fitness)) pending.remove(batch.id);
+                }
+                fail(null);
+            } catch (IOException | RuntimeException e) {
+                // Trame tronquée ou incohérente comprise : le worker est écarté
+                fail(e);
+            }
+        }
+
+        // Expédition terminée sans réponse de ce worker : sa place est rendue (une seule fois)
+        void release(Dispatch dispatch) {
+            if (inFlight.remove(dispatch.batch.id, dispatch)) slots.release();
+        }
+
+        // Worker perdu : ses lots en vol repartent vers les autres
+        private void fail(Exception cause) {
+            if (!shutdown() || closed) return;
+            System.err.println("Worker perdu (" + socket.getRemoteSocketAddress() + ")"
+                    + ((cause != null) ? " : " + cause.getMessage() : ""));
+            for (Dispatch dispatch : inFlight.values()) {
+                if (!dispatch.requeued) requeue(dispatch.batch);
+            }
+            inFlight.clear();
+        }
+
+        // Faux si la connexion était déjà fermée
+        boolean shutdown() {
+            if (!alive.getAndSet(false)) return false;
+            workers.remove(this);
+            sender.interrupt();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Déjà fermé
+            }
+            return true;
+        }
+    }
+}
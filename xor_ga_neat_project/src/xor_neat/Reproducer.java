@@ -0,0 +1,159 @@
+package xor_neat;
+
+import xor_common.RandomStreams;
+import xor_common.SplitMixRandom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reproduction de la population, en trois temps :
+ * 1. plan (thread principal) : place de chaque enfant dans la prochaine génération
+ *    (élites, enfants de chaque espèce, remplissage) et flux aléatoire de chacun, obtenu par
+ *    split() du flux de la reproduction, dans l'ordre des enfants ;
+ * 2. production (en parallèle) : crossover / copie / mutation de chaque enfant avec son propre
+ *    flux, les nouvelles innovations recevant des identifiants provisoires ;
+ * 3. validation (thread principal, dans l'ordre des enfants) : les innovations provisoires
+ *    sont enregistrées dans le tracker et les enfants renumérotés.
+ * Les enfants sont rangés dans un tableau pré-dimensionné : le résultat ne dépend ni du nombre
+ * de threads ni de leur ordonnancement. Avec un seul thread, le même pipeline est exécuté
+ * séquentiellement.
+ */
+public class Reproducer {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final SplitMixRandom random;
+
+    /**
+     * Reproduction sur le pool du moteur (géré par son propriétaire ; null = séquentiel).
+     * @param random flux de la reproduction (dérivé de la graine de l'exécution)
+     */
+    public Reproducer(ForkJoinPool sharedPool, SplitMixRandom random) {
+        this.threads = (sharedPool != null) ? sharedPool.getParallelism() : 1;
+        this.pool = sharedPool;
+        this.random = random;
+    }
+
+    // Flux de la reproduction, dans son état courant (points de sauvegarde)
+    SplitMixRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Crée la génération suivante. Le nombre d'enfants de chaque espèce est proportionnel
+     * à son fitness ajusté (adjustFitness() déjà appelé, total > 0) ; le champion de chaque
+     * espèce qui a au moins un enfant est copié tel quel.
+     */
+    public List<NeatGenome> reproduce(List<Species> species, double totalAdjustedFitness, int populationSize,
+                                      NeatConfig config, InnovationTracker tracker,
+                                      int inputCount, int outputCount) {
+        // 1. Plan : null = nouveau génome aléatoire (aucune espèce)
+        NeatGenome[] nextGeneration = new NeatGenome[populationSize];
+        Species[] parents = new Species[populationSize];
+        boolean[] toProduce = new boolean[populationSize];
+        int filled = 0;
+
+        for (Species s : species) {
+            int offspringCount = (int) ((s.getTotalAdjustedFitness() / totalAdjustedFitness) * populationSize);
+            offspringCount = Math.min(offspringCount, populationSize - filled);
+
+            // Elitisme : on garde le champion de l'espèce directement
+            if (offspringCount > 0) {
+                s.getMembers().sort(Collections.reverseOrder(Comparator.comparingDouble(NeatGenome::getFitness)));
+                nextGeneration[filled++] = s.getMembers().get(0).copy();
+                offspringCount--;
+            }
+            for (int i = 0; i < offspringCount; i++) {
+                parents[filled] = s;
+                toProduce[filled++] = true;
+            }
+        }
+        // Remplissage (si erreurs d'arrondi)
+        while (filled < populationSize) {
+            parents[filled] = species.isEmpty() ? null : species.get(random.nextInt(species.size()));
+            toProduce[filled++] = true;
+        }
+
+        SplitMixRandom[] streams = new SplitMixRandom[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            if (toProduce[i]) streams[i] = random.split();
+        }
+
+        // 2. Production
+        ProvisionalInnovations[] ledgers = new ProvisionalInnovations[populationSize];
+        if (pool == null || populationSize < 2) {
+            produceRange(0, populationSize, nextGeneration, parents, toProduce, streams, ledgers,
+                    config, tracker, inputCount, outputCount);
+        } else {
+            int chunkCount = Math.min(populationSize, threads * CHUNKS_PER_THREAD);
+            List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+            for (int c = 0; c < chunkCount; c++) {
+                int from = (int) ((long) populationSize * c / chunkCount);
+                int to = (int) ((long) populationSize * (c + 1) / chunkCount);
+                tasks.add(() -> {
+                    produceRange(from, to, nextGeneration, parents, toProduce, streams, ledgers,
+                            config, tracker, inputCount, outputCount);
+                    return null;
+                });
+            }
+            runAll(tasks);
+        }
+
+        // 3. Validation des innovations, dans l'ordre des enfants
+        for (int i = 0; i < populationSize; i++) {
+            if (ledgers[i] != null && !ledgers[i].isEmpty()) {
+                ledgers[i].commit(nextGeneration[i]);
+            }
+        }
+        return new ArrayList<>(Arrays.asList(nextGeneration));
+    }
+
+    private static void produceRange(int from, int to, NeatGenome[] nextGeneration, Species[] parents,
+                                     boolean[] toProduce, SplitMixRandom[] streams, ProvisionalInnovations[] ledgers,
+                                     NeatConfig config, InnovationTracker tracker,
+                                     int inputCount, int outputCount) {
+        // En séquentiel, on tourne sur le thread principal : son flux est restauré à la fin
+        RandomGenerator outer = RandomStreams.set(null);
+        try {
+            for (int i = from; i < to; i++) {
+                if (!toProduce[i]) continue;
+                RandomStreams.set(streams[i]);
+                ProvisionalInnovations ledger = new ProvisionalInnovations(tracker);
+                nextGeneration[i] = (parents[i] != null)
+                        ? parents[i].createOffspring(config, ledger)
+                        : new NeatGenome(inputCount, outputCount, ledger);
+                ledgers[i] = ledger;
+            }
+        } finally {
+            RandomStreams.set(outer);
+        }
+    }
+
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reproduction interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant la reproduction", e.getCause());
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
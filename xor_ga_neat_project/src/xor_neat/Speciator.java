@@ -0,0 +1,226 @@
+package xor_neat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Répartition de la population en espèces, en deux phases :
+ * 1. en parallèle : chaque génome cherche la première espèce existante compatible
+ *    (représentants parcourus dans l'ordre des espèces) ;
+ * 2. en séquentiel, dans l'ordre de la population : les génomes sans espèce rejoignent
+ *    la première espèce créée pendant cette génération qui les accepte, ou en fondent une.
+ * Le résultat est celui de l'algorithme séquentiel d'origine, quel que soit le nombre de threads.
+ *
+ * Avant chaque calcul exact, SpeciesIndex écarte les espèces dont la borne inférieure de
+ * distance dépasse déjà le seuil : la plupart des paires ne sont jamais parcourues gène à gène,
+ * ce qui permet des populations de l'ordre de 100k.
+ *
+ * Les distances sont mémorisées par paire (contentHash du représentant, contentHash du génome) :
+ * un génome et un représentant inchangés (élites, représentant conservé) ne sont pas recomparés.
+ * Le cache ne garde que les paires vues pendant les deux dernières générations.
+ */
+public class Speciator implements AutoCloseable {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    // En dessous de ce nombre de comparaisons potentielles, le parallélisme ne paie pas
+    private static final int PARALLEL_MIN_WORK = 2048;
+
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    private ConcurrentHashMap<Long, Double> currentDistances = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Long, Double> previousDistances = new ConcurrentHashMap<>();
+
+    // Statistiques de la dernière spéciation
+    private final AtomicInteger distanceComputations = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger prunedComparisons = new AtomicInteger();
+
+    public Speciator(int threads) {
+        this.threads = Math.max(1, threads);
+        this.pool = (this.threads > 1) ? new ForkJoinPool(this.threads) : null;
+        this.ownsPool = true;
+    }
+
+    /**
+     * Spéciation sur un pool partagé (non fermé par close() ; null = séquentiel).
+     */
+    public Speciator(ForkJoinPool sharedPool) {
+        this.threads = (sharedPool != null) ? sharedPool.getParallelism() : 1;
+        this.pool = sharedPool;
+        this.ownsPool = false;
+    }
+
+    /**
+     * Vide les espèces puis y réassigne toute la population (les nouvelles espèces sont
+     * ajoutées en fin de liste). Les espèces restées vides ne sont pas supprimées.
+     */
+    public void assign(List<NeatGenome> population, List<Species> species, NeatConfig config) {
+        distanceComputations.set(0);
+        cacheHits.set(0);
+        prunedComparisons.set(0);
+        for (Species s : species) s.clear();
+
+        // Représentants existants (hash calculés ici, avant les lectures concurrentes)
+        int existingCount = species.size();
+        NeatGenome[] representatives = new NeatGenome[existingCount];
+        SpeciesIndex index = new SpeciesIndex();
+        for (int k = 0; k < existingCount; k++) {
+            representatives[k] = species.get(k).getRepresentative();
+            representatives[k].contentHash();
+            index.add(representatives[k]);
+        }
+
+        // Phase 1 : première espèce existante compatible pour chaque génome
+        int size = population.size();
+        int[] firstMatch = new int[size];
+        long[] signatures = new long[size * SpeciesIndex.SIGNATURE_WORDS];
+        if (pool == null || (long) size * existingCount < PARALLEL_MIN_WORK) {
+            matchRange(population, 0, size, representatives, index, signatures, firstMatch, config);
+        } else {
+            int chunkCount = Math.min(size, threads * CHUNKS_PER_THREAD);
+            List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+            for (int c = 0; c < chunkCount; c++) {
+                int from = (int) ((long) size * c / chunkCount);
+                int to = (int) ((long) size * (c + 1) / chunkCount);
+                tasks.add(() -> {
+                    matchRange(population, from, to, representatives, index, signatures, firstMatch, config);
+                    return null;
+                });
+            }
+            runAll(tasks);
+        }
+
+        // Phase 2 : affectation déterministe, dans l'ordre de la population
+        for (int i = 0; i < size; i++) {
+            NeatGenome genome = population.get(i);
+            if (firstMatch[i] >= 0) {
+                species.get(firstMatch[i]).addCheckedMember(genome);
+                continue;
+            }
+            boolean foundSpecies = false;
+            int connectionCount = genome.getConnectionCount();
+            long[] signature = Arrays.copyOfRange(signatures, i * SpeciesIndex.SIGNATURE_WORDS,
+                    (i + 1) * SpeciesIndex.SIGNATURE_WORDS);
+            for (int k = existingCount; k < species.size(); k++) {
+                if (!index.mayMatch(k, connectionCount, signature)) {
+                    prunedComparisons.incrementAndGet();
+                    continue;
+                }
+                Species candidate = species.get(k);
+                if (distance(candidate.getRepresentative(), genome, config) <= NeatConfig.COMPATIBILITY_THRESHOLD) {
+                    candidate.addCheckedMember(genome);
+                    foundSpecies = true;
+                    break;
+                }
+            }
+            if (!foundSpecies) {
+                species.add(new Species(genome));
+                index.add(genome);
+            }
+        }
+
+        // Rotation du cache : les paires de l'avant-dernière génération sont oubliées
+        ConcurrentHashMap<Long, Double> recycled = previousDistances;
+        previousDistances = currentDistances;
+        recycled.clear();
+        currentDistances = recycled;
+    }
+
+    private void matchRange(List<NeatGenome> population, int from, int to, NeatGenome[] representatives,
+                            SpeciesIndex index, long[] signatures, int[] firstMatch, NeatConfig config) {
+        long[] signature = new long[SpeciesIndex.SIGNATURE_WORDS];
+        int pruned = 0;
+        for (int i = from; i < to; i++) {
+            NeatGenome genome = population.get(i);
+            int connectionCount = genome.getConnectionCount();
+            SpeciesIndex.signature(genome, signature, 0);
+            System.arraycopy(signature, 0, signatures, i * SpeciesIndex.SIGNATURE_WORDS, SpeciesIndex.SIGNATURE_WORDS);
+
+            firstMatch[i] = -1;
+            for (int k = 0; k < representatives.length; k++) {
+                if (!index.mayMatch(k, connectionCount, signature)) {
+                    pruned++;
+                    continue;
+                }
+                if (distance(representatives[k], genome, config) <= NeatConfig.COMPATIBILITY_THRESHOLD) {
+                    firstMatch[i] = k;
+                    break;
+                }
+            }
+        }
+        prunedComparisons.addAndGet(pruned);
+    }
+
+    private double distance(NeatGenome representative, NeatGenome genome, NeatConfig config) {
+        long key = pairKey(representative.contentHash(), genome.contentHash());
+        Double cached = currentDistances.get(key);
+        if (cached == null) {
+            cached = previousDistances.get(key);
+            if (cached != null) currentDistances.put(key, cached);
+        }
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+        double distance = representative.compatibilityDistance(genome, config);
+        distanceComputations.incrementAndGet();
+        currentDistances.put(key, distance);
+        return distance;
+    }
+
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Spéciation interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant la spéciation", e.getCause());
+        }
+    }
+
+    // Clé ordonnée d'une paire de hash (mélange SplitMix64)
+    private static long pairKey(long representativeHash, long genomeHash) {
+        long z = representativeHash * 0x9E3779B97F4A7C15L + genomeHash;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Distances réellement calculées lors de la dernière spéciation.
+     */
+    public int getLastDistanceComputations() {
+        return distanceComputations.get();
+    }
+
+    /**
+     * Distances servies par le cache lors de la dernière spéciation.
+     */
+    public int getLastCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Comparaisons écartées par la borne inférieure (SpeciesIndex) lors de la dernière spéciation.
+     */
+    public int getLastPrunedComparisons() {
+        return prunedComparisons.get();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null && ownsPool) pool.shutdown();
+    }
+}
@@ -1,13 +1,20 @@
 package xor_neat;
 
+import xor_common.RandomStreams;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class Species {
 
-    private static final Random RANDOM = new Random();
+    // Flux aléatoire du thread courant (flux dédié à l'enfant pendant la reproduction parallèle)
+    private static RandomGenerator random() {
+        return RandomStreams.current();
+    }
 
     private NeatGenome representative;
     private final List<NeatGenome> members = new ArrayList<>();
@@ -19,6 +26,12 @@ public class Species {
         this.members.add(firstMember);
     }
 
+    // Espèce relue d'un point de sauvegarde
+    private Species(NeatGenome representative, int generationsSinceImprovement) {
+        this.representative = representative;
+        this.generationsSinceImprovement = generationsSinceImprovement;
+    }
+
     public boolean addMember(NeatGenome genome, NeatConfig config) {
         double distance = representative.compatibilityDistance(genome, config);
         if (distance <= config.COMPATIBILITY_THRESHOLD) {
@@ -28,6 +41,13 @@ public class Species {
         return false;
     }
 
+    /**
+     * Ajoute un membre dont la compatibilité a déjà été vérifiée (voir Speciator).
+     */
+    void addCheckedMember(NeatGenome genome) {
+        members.add(genome);
+    }
+
     /**
      * Calcule le "fitness ajusté" pour chaque membre, basé sur la taille de l'espèce.
      * C'est le "Fitness Sharing" de NEAT.
@@ -63,17 +83,17 @@ public class Species {
 
         // Choisir un nouveau représentant au hasard
         if (!members.isEmpty()) {
-            representative = members.get(RANDOM.nextInt(members.size()));
+            representative = members.get(random().nextInt(members.size()));
         }
     }
 
     /**
      * Crée un enfant pour cette espèce.
      */
-    public NeatGenome createOffspring(NeatConfig config, InnovationTracker tracker) {
+    public NeatGenome createOffspring(NeatConfig config, InnovationSource tracker) {
         NeatGenome child;
 
-        if (RANDOM.nextDouble() < config.CROSSOVER_RATE && members.size() > 1) {
+        if (random().nextDouble() < config.CROSSOVER_RATE && members.size() > 1) {
             // Crossover
             NeatGenome p1 = selectMember();
             NeatGenome p2 = selectMember();
@@ -94,13 +114,17 @@ public class Species {
             throw new RuntimeException("Erreur : Tentative de sélection dans une espèce vide.");
         }
         // Sélection par tournoi (taille 2)
-        NeatGenome p1 = members.get(RANDOM.nextInt(members.size()));
-        NeatGenome p2 = members.get(RANDOM.nextInt(members.size()));
+        NeatGenome p1 = members.get(random().nextInt(members.size()));
+        NeatGenome p2 = members.get(random().nextInt(members.size()));
 
         // Compare le VRAI fitness
         return (p1.getFitness() >= p2.getFitness()) ? p1 : p2;
     }
 
+    public NeatGenome getRepresentative() {
+        return representative;
+    }
+
     public List<NeatGenome> getMembers() {
         return members;
     }
@@ -112,4 +136,43 @@ public class Species {
     public void clear() {
         members.clear();
     }
+
+    // --- Format binaire (points de sauvegarde) ---
+    // octet "avec membres", représentant (GenomeCodec.writeState), varint générations sans progrès,
+    // puis, si demandé, varint nombre de membres et les membres.
+    // Entre deux générations, les membres sont ceux de la génération précédente et seront
+    // réaffectés par la spéciation suivante : seul le représentant compte.
+
+    int maxEncodedSize(boolean withMembers) {
+        int size = 1 + GenomeCodec.maxStateSize(representative) + 5;
+        if (withMembers) {
+            size += 5;
+            for (NeatGenome member : members) size += GenomeCodec.maxStateSize(member);
+        }
+        return size;
+    }
+
+    void write(ByteBuffer buffer, boolean withMembers) {
+        buffer.put((byte) (withMembers ? 1 : 0));
+        GenomeCodec.writeState(buffer, representative);
+        GenomeCodec.putVarint(buffer, generationsSinceImprovement);
+        if (withMembers) {
+            GenomeCodec.putVarint(buffer, members.size());
+            for (NeatGenome member : members) GenomeCodec.writeState(buffer, member);
+        }
+    }
+
+    static Species read(ByteBuffer buffer) {
+        try {
+            boolean withMembers = buffer.get() != 0;
+            Species species = new Species(GenomeCodec.readState(buffer), GenomeCodec.getVarint(buffer));
+            if (withMembers) {
+                int count = GenomeCodec.getCount(buffer, 1);
+                for (int i = 0; i < count; i++) species.members.add(GenomeCodec.readState(buffer));
+            }
+            return species;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Espèce binaire tronquée", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package xor_neat;
+
+import java.util.Arrays;
+
+/**
+ * Filtre rapide des espèces candidates avant le calcul exact de compatibilityDistance.
+ *
+ * Pour chaque représentant on garde le nombre de connexions et une signature de 256 bits
+ * de ses innovations (bit = innovation mod 256). Deux bornes inférieures exactes du nombre
+ * de gènes non appariés (excédentaires + disjoints) s'en déduisent :
+ * - |n1 - n2| ;
+ * - popcount(sig1 XOR sig2) : chaque bit différent révèle au moins une innovation
+ *   présente dans un seul des deux génomes (bits distincts = innovations distinctes).
+ * D'où distance >= min(C1, C2) * max(les deux) / N. Une espèce dont la borne dépasse le seuil
+ * ne peut pas accepter le génome : on l'écarte sans parcourir les gènes.
+ * Le filtre est exact : l'affectation des espèces est inchangée.
+ */
+class SpeciesIndex {
+
+    static final int SIGNATURE_WORDS = 4;
+    private static final int SIGNATURE_MASK = SIGNATURE_WORDS * 64 - 1;
+    // Marge contre les arrondis (la distance exacte somme les termes séparément)
+    private static final double EPSILON = 1e-9;
+
+    private final double minGeneCoefficient;
+    private final double threshold;
+
+    private int size = 0;
+    private int[] connectionCounts = new int[16];
+    private long[] signatures = new long[16 * SIGNATURE_WORDS];
+
+    SpeciesIndex() {
+        this.minGeneCoefficient = Math.min(NeatConfig.C1_EXCESS, NeatConfig.C2_DISJOINT);
+        this.threshold = NeatConfig.COMPATIBILITY_THRESHOLD;
+    }
+
+    /**
+     * Ajoute le représentant de l'espèce suivante (même ordre que la liste des espèces).
+     */
+    void add(NeatGenome representative) {
+        if (size == connectionCounts.length) {
+            connectionCounts = Arrays.copyOf(connectionCounts, size * 2);
+            signatures = Arrays.copyOf(signatures, size * 2 * SIGNATURE_WORDS);
+        }
+        connectionCounts[size] = representative.getConnectionCount();
+        signature(representative, signatures, size * SIGNATURE_WORDS);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Écrit la signature du génome dans target[offset .. offset + SIGNATURE_WORDS).
+     */
+    static void signature(NeatGenome genome, long[] target, int offset) {
+        Arrays.fill(target, offset, offset + SIGNATURE_WORDS, 0L);
+        for (int c = 0; c < genome.getConnectionCount(); c++) {
+            int bit = genome.getInnovation(c) & SIGNATURE_MASK;
+            target[offset + (bit >>> 6)] |= 1L << (bit & 63);
+        }
+    }
+
+    /**
+     * Faux si l'espèce k ne peut certainement pas accepter ce génome
+     * (connectionCount et signature calculée par signature()).
+     */
+    boolean mayMatch(int k, int connectionCount, long[] signature) {
+        if (minGeneCoefficient <= 0) return true;
+
+        int other = connectionCounts[k];
+        int unmatched = Math.abs(connectionCount - other);
+        int base = k * SIGNATURE_WORDS;
+        int differing = 0;
+        for (int w = 0; w < SIGNATURE_WORDS; w++) {
+            differing += Long.bitCount(signature[w] ^ signatures[base + w]);
+        }
+        unmatched = Math.max(unmatched, differing);
+
+        // Même normalisation que compatibilityDistance
+        int maxSize = Math.max(connectionCount, other);
+        double n = (maxSize < 20) ? 1.0 : maxSize;
+        return minGeneCoefficient * unmatched / n <= threshold + EPSILON;
+    }
+}
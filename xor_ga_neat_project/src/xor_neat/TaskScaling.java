@@ -0,0 +1,67 @@
+package xor_neat;
+
+import xor_common.RandomStreams;
+import xor_common.TruthTableTask;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Temps jusqu'à la solution en fonction de la taille du problème : une exécution NEAT par taille
+ * d'une famille de tables de vérité (parité ou multiplexeur, voir TruthTableTask), avec la même
+ * graine. Une tâche est résolue quand le champion classe correctement ses 2^n lignes.
+ *
+ * Usage : TaskScaling [parity|multiplexer] [taille min] [taille max] [graine]
+ * Résultats dans la console et dans task_scaling_log.csv.
+ */
+public class TaskScaling {
+
+    private static final String CSV_OUTPUT_FILE = "task_scaling_log.csv";
+
+    public static void main(String[] args) throws IOException {
+        String family = (args.length > 0) ? args[0] : "parity";
+        int minSize = (args.length > 1) ? Integer.parseInt(args[1]) : 2;
+        int maxSize = (args.length > 2) ? Integer.parseInt(args[2]) : 6;
+        long seed = RandomStreams.resolveSeed((args.length > 3) ? new String[]{args[3]} : null, NeatConfig.RANDOM_SEED);
+
+        System.out.println("--- Passage à l'échelle NEAT : " + family + " " + minSize + ".." + maxSize + " ---");
+        System.out.println("Graine: " + seed + ", Générations max: " + NeatConfig.MAX_GENERATIONS);
+        System.out.println("Tâche              Lignes  Générations  Évaluations  Temps (s)  Résolu");
+
+        NeatConfig config = new NeatConfig();
+        try (BufferedWriter csv = Files.newBufferedWriter(Paths.get(CSV_OUTPUT_FILE))) {
+            csv.write("Task,Size,Inputs,Rows,Generations,Evaluations,Seconds,Solved");
+            csv.newLine();
+
+            for (int size = minSize; size <= maxSize; size++) {
+                TruthTableTask task = family.equals("multiplexer")
+                        ? TruthTableTask.multiplexer(size) : TruthTableTask.parity(size);
+
+                long start = System.nanoTime();
+                GenerationStats last;
+                try (NeatEngine engine = new NeatEngine(config, task.getInputCount(), 1,
+                        genome -> NeatXorSolver.calculateFitness(task, genome), seed)) {
+                    last = engine.runUntil(stats -> solves(task, stats.getBest()), NeatConfig.MAX_GENERATIONS);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                boolean solved = solves(task, last.getBest());
+
+                System.out.printf("%-17s %7d  %11d  %11d  %9.2f  %s\n", task.getName(), task.getRowCount(),
+                        last.getGeneration(), last.getEvaluations(), seconds, solved ? "oui" : "non");
+                csv.write(String.format(Locale.US, "%s,%d,%d,%d,%d,%d,%.3f,%b", task.getName(), size,
+                        task.getInputCount(), task.getRowCount(), last.getGeneration(), last.getEvaluations(),
+                        seconds, solved));
+                csv.newLine();
+                csv.flush();
+            }
+        }
+        System.out.println("Résultats enregistrés dans : " + CSV_OUTPUT_FILE);
+    }
+
+    private static boolean solves(TruthTableTask task, NeatGenome genome) {
+        return task.misclassifiedRows(NeatNetwork.compile(genome)) == 0;
+    }
+}
@@ -0,0 +1,317 @@
+package xor_neat;
+
+import java.util.Arrays;
+
+/**
+ * Index structurel d'un NeatGenome, utilisé par les mutations structurelles.
+ * - table id -> slot (slot = index du nœud dans les tableaux du génome)
+ * - ensemble des arêtes (in, out) pour tester l'existence en O(1)
+ * - listes d'adjacence sortantes / entrantes
+ * - ordre topologique maintenu incrémentalement (Pearce-Kelly) : un ajout d'arête
+ *   déjà compatible avec l'ordre coûte O(1), sinon seule la zone concernée est parcourue.
+ *
+ * Les connexions désactivées font partie du graphe (comme l'ancienne détection de cycles).
+ */
+class TopologyIndex {
+
+    private static final int EMPTY = -1;
+
+    private int size = 0;
+
+    // id -> slot (adressage ouvert, sondage linéaire)
+    private int[] idKeys;
+    private int[] idSlots;
+
+    // Arêtes (slotIn << 32 | slotOut) (adressage ouvert, sondage linéaire)
+    private long[] edgeKeys;
+    private int edgeCount = 0;
+
+    // Adjacence par slot
+    private int[][] outAdj;
+    private int[] outCount;
+    private int[][] inAdj;
+    private int[] inCount;
+
+    // ord[slot] = position dans l'ordre topologique (permutation de 0..size-1)
+    private int[] ord;
+
+    // Tampons des parcours Pearce-Kelly (marquage par époque, pas de remise à zéro)
+    private int[] mark;
+    private int epoch = 0;
+    private int[] stack;
+    private int[] deltaF;
+    private int[] deltaB;
+
+    TopologyIndex(int capacity) {
+        capacity = Math.max(capacity, 4);
+        idKeys = new int[tableSize(capacity)];
+        idSlots = new int[idKeys.length];
+        Arrays.fill(idKeys, EMPTY);
+        edgeKeys = new long[tableSize(capacity * 2)];
+        Arrays.fill(edgeKeys, EMPTY);
+        outAdj = new int[capacity][];
+        outCount = new int[capacity];
+        inAdj = new int[capacity][];
+        inCount = new int[capacity];
+        ord = new int[capacity];
+        mark = new int[capacity];
+        stack = new int[capacity];
+        deltaF = new int[capacity];
+        deltaB = new int[capacity];
+    }
+
+    /**
+     * Construit l'index complet d'un génome (nœuds dans l'ordre des slots, ordre initial par Kahn).
+     */
+    static TopologyIndex build(NeatGenome genome) {
+        int nodeCount = genome.getNodeCount();
+        TopologyIndex index = new TopologyIndex(nodeCount);
+        for (int slot = 0; slot < nodeCount; slot++) {
+            index.addNode(genome.getNodeId(slot));
+        }
+        for (int c = 0; c < genome.getConnectionCount(); c++) {
+            int in = index.slotOf(genome.getInNode(c));
+            int out = index.slotOf(genome.getOutNode(c));
+            if (in < 0 || out < 0 || index.hasEdge(in, out)) continue;
+            index.insertEdge(in, out);
+        }
+        index.sortKahn();
+        return index;
+    }
+
+    // --- Nœuds ---
+
+    /**
+     * Ajoute un nœud en fin d'ordre topologique et renvoie son slot.
+     */
+    int addNode(int id) {
+        int slot = size;
+        if (slot == ord.length) grow(slot * 2);
+        putId(id, slot);
+        outAdj[slot] = new int[2];
+        inAdj[slot] = new int[2];
+        ord[slot] = slot;
+        size++;
+        return slot;
+    }
+
+    int slotOf(int id) {
+        int mask = idKeys.length - 1;
+        for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+            int key = idKeys[i];
+            if (key == id) return idSlots[i];
+            if (key == EMPTY) return -1;
+        }
+    }
+
+    // --- Arêtes ---
+
+    boolean hasEdge(int in, int out) {
+        long key = edgeKey(in, out);
+        int mask = edgeKeys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = edgeKeys[i];
+            if (k == key) return true;
+            if (k == EMPTY) return false;
+        }
+    }
+
+    /**
+     * Ajoute l'arête in -> out si elle ne ferme pas de cycle, en réordonnant localement
+     * l'ordre topologique (Pearce-Kelly). Renvoie false (sans rien modifier) en cas de cycle.
+     */
+    boolean tryAddEdge(int in, int out) {
+        if (in == out) return false;
+        if (hasEdge(in, out)) return true;
+
+        int lowerBound = ord[out];
+        int upperBound = ord[in];
+        if (lowerBound < upperBound) {
+            // L'arête viole l'ordre : zone affectée = [ord[out], ord[in]]
+            epoch++;
+            int forwardSize = searchForward(out, upperBound);
+            if (forwardSize < 0) return false; // 'in' atteignable depuis 'out' : cycle
+            int backwardSize = searchBackward(in, lowerBound);
+            reorder(forwardSize, backwardSize);
+        }
+        insertEdge(in, out);
+        return true;
+    }
+
+    // Descendants de start dont l'ordre est < upperBound. -1 si le nœud à upperBound est atteint.
+    private int searchForward(int start, int upperBound) {
+        int top = 0, found = 0;
+        stack[top++] = start;
+        mark[start] = epoch;
+        while (top > 0) {
+            int node = stack[--top];
+            deltaF[found++] = node;
+            for (int k = 0; k < outCount[node]; k++) {
+                int next = outAdj[node][k];
+                if (ord[next] == upperBound) return -1;
+                if (mark[next] != epoch && ord[next] < upperBound) {
+                    mark[next] = epoch;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return found;
+    }
+
+    // Ancêtres de start dont l'ordre est > lowerBound.
+    private int searchBackward(int start, int lowerBound) {
+        int top = 0, found = 0;
+        stack[top++] = start;
+        mark[start] = epoch;
+        while (top > 0) {
+            int node = stack[--top];
+            deltaB[found++] = node;
+            for (int k = 0; k < inCount[node]; k++) {
+                int previous = inAdj[node][k];
+                if (mark[previous] != epoch && ord[previous] > lowerBound) {
+                    mark[previous] = epoch;
+                    stack[top++] = previous;
+                }
+            }
+        }
+        return found;
+    }
+
+    // Réattribue les positions de deltaB ∪ deltaF : d'abord les ancêtres, puis les descendants.
+    private void reorder(int forwardSize, int backwardSize) {
+        sortByOrd(deltaB, backwardSize);
+        sortByOrd(deltaF, forwardSize);
+
+        int total = forwardSize + backwardSize;
+        int[] positions = new int[total];
+        for (int i = 0; i < backwardSize; i++) positions[i] = ord[deltaB[i]];
+        for (int i = 0; i < forwardSize; i++) positions[backwardSize + i] = ord[deltaF[i]];
+        Arrays.sort(positions);
+
+        for (int i = 0; i < backwardSize; i++) ord[deltaB[i]] = positions[i];
+        for (int i = 0; i < forwardSize; i++) ord[deltaF[i]] = positions[backwardSize + i];
+    }
+
+    // Tri par insertion sur ord (les zones affectées sont petites)
+    private void sortByOrd(int[] nodes, int count) {
+        for (int i = 1; i < count; i++) {
+            int node = nodes[i];
+            int key = ord[node];
+            int j = i - 1;
+            while (j >= 0 && ord[nodes[j]] > key) {
+                nodes[j + 1] = nodes[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+        }
+    }
+
+    private void insertEdge(int in, int out) {
+        putEdge(edgeKey(in, out));
+        outAdj[in] = append(outAdj[in], outCount[in]++, out);
+        inAdj[out] = append(inAdj[out], inCount[out]++, in);
+    }
+
+    // Ordre initial : Kahn sur toutes les arêtes (les nœuds d'un éventuel cycle sont placés à la fin)
+    private void sortKahn() {
+        int[] pending = Arrays.copyOf(inCount, size);
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (pending[slot] == 0) queue[tail++] = slot;
+        }
+        Arrays.fill(ord, 0, size, EMPTY);
+        int position = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            ord[node] = position++;
+            for (int k = 0; k < outCount[node]; k++) {
+                int next = outAdj[node][k];
+                if (--pending[next] == 0) queue[tail++] = next;
+            }
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (ord[slot] == EMPTY) ord[slot] = position++;
+        }
+    }
+
+    // --- Tables internes ---
+
+    private void putId(int id, int slot) {
+        if ((size + 1) * 2 > idKeys.length) rehashIds(idKeys.length * 2);
+        int mask = idKeys.length - 1;
+        int i = mix(id) & mask;
+        while (idKeys[i] != EMPTY && idKeys[i] != id) i = (i + 1) & mask;
+        idKeys[i] = id;
+        idSlots[i] = slot;
+    }
+
+    private void rehashIds(int capacity) {
+        int[] oldKeys = idKeys;
+        int[] oldSlots = idSlots;
+        idKeys = new int[capacity];
+        idSlots = new int[capacity];
+        Arrays.fill(idKeys, EMPTY);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (idKeys[i] != EMPTY) i = (i + 1) & mask;
+            idKeys[i] = oldKeys[j];
+            idSlots[i] = oldSlots[j];
+        }
+    }
+
+    private void putEdge(long key) {
+        if ((edgeCount + 1) * 2 > edgeKeys.length) rehashEdges(edgeKeys.length * 2);
+        int mask = edgeKeys.length - 1;
+        int i = mix(key) & mask;
+        while (edgeKeys[i] != EMPTY) i = (i + 1) & mask;
+        edgeKeys[i] = key;
+        edgeCount++;
+    }
+
+    private void rehashEdges(int capacity) {
+        long[] oldKeys = edgeKeys;
+        edgeKeys = new long[capacity];
+        Arrays.fill(edgeKeys, EMPTY);
+        int mask = capacity - 1;
+        for (long key : oldKeys) {
+            if (key == EMPTY) continue;
+            int i = mix(key) & mask;
+            while (edgeKeys[i] != EMPTY) i = (i + 1) & mask;
+            edgeKeys[i] = key;
+        }
+    }
+
+    private void grow(int capacity) {
+        outAdj = Arrays.copyOf(outAdj, capacity);
+        outCount = Arrays.copyOf(outCount, capacity);
+        inAdj = Arrays.copyOf(inAdj, capacity);
+        inCount = Arrays.copyOf(inCount, capacity);
+        ord = Arrays.copyOf(ord, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+        stack = new int[capacity];
+        deltaF = new int[capacity];
+        deltaB = new int[capacity];
+    }
+
+    private static int[] append(int[] array, int count, int value) {
+        if (count == array.length) array = Arrays.copyOf(array, count * 2);
+        array[count] = value;
+        return array;
+    }
+
+    private static long edgeKey(int in, int out) {
+        return ((long) in << 32) | (out & 0xFFFFFFFFL);
+    }
+
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(entries, 2) * 2 - 1) << 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}